@@ -0,0 +1,107 @@
+package geometries;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The intersection kernel on the SIMD instructions of the JDK Vector API - a ray is tested
+ * against a vector of triangles or spheres (4 on AVX2, 8 on AVX-512) by every instruction. <br/>
+ * The lanes do the operations of the scalar calculations of {@link Triangle} and {@link Sphere}
+ * in the same order, and the early returns become masks, so the distances are exactly the
+ * scalar ones. <br/>
+ * This source root needs the incubating module of the vector API, it is compiled apart from the
+ * main sources and is loaded by {@link IntersectionKernel} only when it is present:
+ * <pre>
+ * javac --add-modules jdk.incubator.vector -cp out -d out src-vector/geometries/*.java
+ * java --add-modules jdk.incubator.vector -cp out ...
+ * </pre>
+ */
+final class VectorIntersectionKernel implements IntersectionKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    /**
+     * the numbers below it are zero (see primitives.Util#isZero)
+     */
+    private static final double ZERO = 0x1p-40;
+
+    @Override
+    public int width() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                                   PrimitiveBatch batch, double[] distances) {
+        for (int i = 0; i < batch.triangleCount; i += SPECIES.length()) {
+            DoubleVector e1x = DoubleVector.fromArray(SPECIES, batch.e1x, i);
+            DoubleVector e1y = DoubleVector.fromArray(SPECIES, batch.e1y, i);
+            DoubleVector e1z = DoubleVector.fromArray(SPECIES, batch.e1z, i);
+            DoubleVector e2x = DoubleVector.fromArray(SPECIES, batch.e2x, i);
+            DoubleVector e2y = DoubleVector.fromArray(SPECIES, batch.e2y, i);
+            DoubleVector e2z = DoubleVector.fromArray(SPECIES, batch.e2z, i);
+
+            // p = dir x e2
+            DoubleVector px = e2z.mul(dy).sub(e2y.mul(dz));
+            DoubleVector py = e2x.mul(dz).sub(e2z.mul(dx));
+            DoubleVector pz = e2y.mul(dx).sub(e2x.mul(dy));
+            DoubleVector det = e1x.mul(px).add(e1y.mul(py)).add(e1z.mul(pz));
+            // the ray is parallel to the triangle
+            VectorMask<Double> miss = det.abs().compare(VectorOperators.LT, ZERO);
+            DoubleVector invDet = DoubleVector.broadcast(SPECIES, 1.0).div(det);
+
+            // s = p0 - a
+            DoubleVector sx = DoubleVector.broadcast(SPECIES, ox).sub(DoubleVector.fromArray(SPECIES, batch.ax, i));
+            DoubleVector sy = DoubleVector.broadcast(SPECIES, oy).sub(DoubleVector.fromArray(SPECIES, batch.ay, i));
+            DoubleVector sz = DoubleVector.broadcast(SPECIES, oz).sub(DoubleVector.fromArray(SPECIES, batch.az, i));
+            DoubleVector u = sx.mul(px).add(sy.mul(py)).add(sz.mul(pz)).mul(invDet);
+            miss = miss.or(u.compare(VectorOperators.LE, 0.0)).or(u.compare(VectorOperators.GE, 1.0));
+
+            // q = s x e1
+            DoubleVector qx = sy.mul(e1z).sub(sz.mul(e1y));
+            DoubleVector qy = sz.mul(e1x).sub(sx.mul(e1z));
+            DoubleVector qz = sx.mul(e1y).sub(sy.mul(e1x));
+            DoubleVector v = qx.mul(dx).add(qy.mul(dy)).add(qz.mul(dz)).mul(invDet);
+            miss = miss.or(v.compare(VectorOperators.LE, 0.0)).or(u.add(v).compare(VectorOperators.GE, 1.0));
+
+            DoubleVector t = e2x.mul(qx).add(e2y.mul(qy)).add(e2z.mul(qz)).mul(invDet);
+            // a distance that is zero or behind the head of the ray
+            miss = miss.or(t.compare(VectorOperators.LT, ZERO));
+            t.blend(Double.POSITIVE_INFINITY, miss).intoArray(distances, i);
+        }
+    }
+
+    @Override
+    public void intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                                 PrimitiveBatch batch, double[] distances) {
+        for (int i = 0; i < batch.sphereCount; i += SPECIES.length()) {
+            DoubleVector ux = DoubleVector.fromArray(SPECIES, batch.cx, i).sub(ox);
+            DoubleVector uy = DoubleVector.fromArray(SPECIES, batch.cy, i).sub(oy);
+            DoubleVector uz = DoubleVector.fromArray(SPECIES, batch.cz, i).sub(oz);
+            DoubleVector rr = DoubleVector.fromArray(SPECIES, batch.rr, i);
+            // the head of the ray is the center
+            VectorMask<Double> center = ux.abs().compare(VectorOperators.LT, ZERO)
+                    .and(uy.abs().compare(VectorOperators.LT, ZERO))
+                    .and(uz.abs().compare(VectorOperators.LT, ZERO));
+
+            // the numbers that are almost zero become zero, as by primitives.Util#alignZero - it is
+            // written out since a vector that is passed to a method which is not inlined is boxed
+            DoubleVector tm = ux.mul(dx).add(uy.mul(dy)).add(uz.mul(dz));
+            tm = tm.blend(0.0, tm.abs().compare(VectorOperators.LT, ZERO));
+            DoubleVector dSquared = ux.mul(ux).add(uy.mul(uy)).add(uz.mul(uz)).sub(tm.mul(tm));
+            dSquared = dSquared.blend(0.0, dSquared.abs().compare(VectorOperators.LT, ZERO));
+            VectorMask<Double> miss = dSquared.compare(VectorOperators.GE, rr);
+            DoubleVector th = rr.sub(dSquared).sqrt();
+            th = th.blend(0.0, th.abs().compare(VectorOperators.LT, ZERO));
+            // the closer intersection if it is in front of the ray, otherwise the farther one
+            DoubleVector t = tm.sub(th);
+            t = t.blend(0.0, t.abs().compare(VectorOperators.LT, ZERO));
+            DoubleVector far = tm.add(th);
+            far = far.blend(0.0, far.abs().compare(VectorOperators.LT, ZERO));
+            t = t.blend(far, t.compare(VectorOperators.LE, 0.0));
+            miss = miss.or(t.compare(VectorOperators.GT, 0.0).not());
+            t.blend(Double.POSITIVE_INFINITY, miss).blend(Double.NaN, center)
+                    .intoArray(distances, batch.sphereOffset + i);
+        }
+    }
+}
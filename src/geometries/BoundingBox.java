@@ -0,0 +1,267 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.RayPacket;
+
+/**
+ * Axis aligned bounding box (AABB) represented by its minimal and maximal corners. <br/>
+ * The box is used by the acceleration structures to skip whole groups of geometries
+ * that a ray can't hit.
+ */
+public final class BoundingBox {
+    /**
+     * minimal coordinates of the box
+     */
+    public final double minX, minY, minZ;
+    /**
+     * maximal coordinates of the box
+     */
+    public final double maxX, maxY, maxZ;
+
+    /**
+     * Constructor to initialize box by the minimal and the maximal coordinates
+     *
+     * @param minX minimal x
+     * @param minY minimal y
+     * @param minZ minimal z
+     * @param maxX maximal x
+     * @param maxY maximal y
+     * @param maxZ maximal z
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructor to initialize the smallest box that contains all the points
+     *
+     * @param points one or more points
+     */
+    public BoundingBox(Point... points) {
+        double x1 = Double.POSITIVE_INFINITY, y1 = Double.POSITIVE_INFINITY, z1 = Double.POSITIVE_INFINITY;
+        double x2 = Double.NEGATIVE_INFINITY, y2 = Double.NEGATIVE_INFINITY, z2 = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            x1 = Math.min(x1, p.getX());
+            y1 = Math.min(y1, p.getY());
+            z1 = Math.min(z1, p.getZ());
+            x2 = Math.max(x2, p.getX());
+            y2 = Math.max(y2, p.getY());
+            z2 = Math.max(z2, p.getZ());
+        }
+        minX = x1;
+        minY = y1;
+        minZ = z1;
+        maxX = x2;
+        maxY = y2;
+        maxZ = z2;
+    }
+
+    /**
+     * the smallest box that contains this box and another box
+     *
+     * @param other the other box
+     * @return the union box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * the surface area of the box, used by the surface area heuristic
+     *
+     * @return surface area
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * the center of the box on one of the axes
+     *
+     * @param axis 0 for x, 1 for y, 2 for z
+     * @return the center coordinate
+     */
+    public double center(int axis) {
+        return switch (axis) {
+            case 0 -> (minX + maxX) / 2;
+            case 1 -> (minY + maxY) / 2;
+            default -> (minZ + maxZ) / 2;
+        };
+    }
+
+    /**
+     * Slab test - checks whether the ray crosses the box
+     *
+     * @param ray the ray
+     * @return true if the ray crosses the box
+     */
+    public boolean intersects(Ray ray) {
+        return intersects(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Slab test - checks whether the ray crosses the box before the given distance
+     *
+     * @param ray         the ray
+     * @param maxDistance maximal distance from the head of the ray
+     * @return true if the ray crosses the box closer than the maximal distance
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        return entryDistance(ray, maxDistance) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Slab test - finds the distance from the head of the ray to the point where it enters the box
+     *
+     * @param ray         the ray
+     * @param maxDistance maximal distance from the head of the ray
+     * @return the entry distance (0 if the head of the ray is inside the box),
+     * or positive infinity if the ray misses the box before the maximal distance
+     */
+    public double entryDistance(Ray ray, double maxDistance) {
+        Point p0 = ray.getP0();
+        var dir = ray.getDir();
+        return entryDistance(p0.getX(), p0.getY(), p0.getZ(), 1 / dir.getX(), 1 / dir.getY(), 1 / dir.getZ(),
+                maxDistance);
+    }
+
+    /**
+     * Slab test of a packet of rays - finds which of the rays cross the box before their
+     * maximal distances. The box is fetched once for all the rays
+     *
+     * @param packet       the rays
+     * @param mask         the rays to test, bit i is the i-th ray
+     * @param maxDistances the maximal distance from the head of every ray
+     * @return the mask of the tested rays that cross the box
+     */
+    public int intersects(RayPacket packet, int mask, double[] maxDistances) {
+        int hits = 0;
+        for (int m = mask; m != 0; m &= m - 1) {
+            int i = Integer.numberOfTrailingZeros(m);
+            if (entryDistance(packet.ox[i], packet.oy[i], packet.oz[i],
+                    packet.invDx[i], packet.invDy[i], packet.invDz[i], maxDistances[i]) != Double.POSITIVE_INFINITY)
+                hits |= 1 << i;
+        }
+        return hits;
+    }
+
+    /**
+     * Shared slab test of a coherent packet of rays by interval arithmetic - the distances where
+     * the rays enter and leave the slabs are bounded by the bounds of the heads and of the inverse
+     * directions of the packet, so one test culls the box for all the rays. The test is
+     * conservative, a box that is not culled may still be missed by all the rays
+     *
+     * @param packet      the rays, must be coherent
+     * @param maxDistance the largest maximal distance of the rays
+     * @return true if all the rays surely miss the box before the maximal distance
+     */
+    public boolean missedBy(RayPacket packet, double maxDistance) {
+        double tMin = 0, tMax = maxDistance;
+
+        // x slab, the near plane is the minimal one for a positive direction
+        boolean positive = packet.minInvX > 0;
+        double near = positive ? minX : maxX, far = positive ? maxX : minX;
+        tMin = Math.max(tMin, lower(near - packet.maxOx, near - packet.minOx, packet.minInvX, packet.maxInvX));
+        tMax = Math.min(tMax, upper(far - packet.maxOx, far - packet.minOx, packet.minInvX, packet.maxInvX));
+        if (tMin > tMax) return true;
+
+        // y slab
+        positive = packet.minInvY > 0;
+        near = positive ? minY : maxY;
+        far = positive ? maxY : minY;
+        tMin = Math.max(tMin, lower(near - packet.maxOy, near - packet.minOy, packet.minInvY, packet.maxInvY));
+        tMax = Math.min(tMax, upper(far - packet.maxOy, far - packet.minOy, packet.minInvY, packet.maxInvY));
+        if (tMin > tMax) return true;
+
+        // z slab
+        positive = packet.minInvZ > 0;
+        near = positive ? minZ : maxZ;
+        far = positive ? maxZ : minZ;
+        tMin = Math.max(tMin, lower(near - packet.maxOz, near - packet.minOz, packet.minInvZ, packet.maxInvZ));
+        tMax = Math.min(tMax, upper(far - packet.maxOz, far - packet.minOz, packet.minInvZ, packet.maxInvZ));
+        return tMin > tMax;
+    }
+
+    /**
+     * the lower bound of the product of two intervals
+     */
+    private static double lower(double a1, double a2, double b1, double b2) {
+        return Math.min(Math.min(a1 * b1, a1 * b2), Math.min(a2 * b1, a2 * b2));
+    }
+
+    /**
+     * the upper bound of the product of two intervals
+     */
+    private static double upper(double a1, double a2, double b1, double b2) {
+        return Math.max(Math.max(a1 * b1, a1 * b2), Math.max(a2 * b1, a2 * b2));
+    }
+
+    /**
+     * Slab test of a ray that is given by numbers
+     *
+     * @param ox          x of the head of the ray
+     * @param oy          y of the head of the ray
+     * @param oz          z of the head of the ray
+     * @param invX        the inverse of x of the direction of the ray
+     * @param invY        the inverse of y of the direction of the ray
+     * @param invZ        the inverse of z of the direction of the ray
+     * @param maxDistance maximal distance from the head of the ray
+     * @return the entry distance, or positive infinity if the ray misses the box before the maximal distance
+     */
+    private double entryDistance(double ox, double oy, double oz, double invX, double invY, double invZ,
+                                 double maxDistance) {
+        double tMin = 0, tMax = maxDistance;
+
+        // x slab
+        double inv = invX;
+        double t1 = (minX - ox) * inv, t2 = (maxX - ox) * inv;
+        if (inv < 0) {
+            double tmp = t1;
+            t1 = t2;
+            t2 = tmp;
+        }
+        // NaN (ray parallel to a slab and starts on its border) is ignored by the comparisons
+        if (t1 > tMin) tMin = t1;
+        if (t2 < tMax) tMax = t2;
+        if (tMin > tMax) return Double.POSITIVE_INFINITY;
+
+        // y slab
+        inv = invY;
+        t1 = (minY - oy) * inv;
+        t2 = (maxY - oy) * inv;
+        if (inv < 0) {
+            double tmp = t1;
+            t1 = t2;
+            t2 = tmp;
+        }
+        if (t1 > tMin) tMin = t1;
+        if (t2 < tMax) tMax = t2;
+        if (tMin > tMax) return Double.POSITIVE_INFINITY;
+
+        // z slab
+        inv = invZ;
+        t1 = (minZ - oz) * inv;
+        t2 = (maxZ - oz) * inv;
+        if (inv < 0) {
+            double tmp = t1;
+            t1 = t2;
+            t2 = tmp;
+        }
+        if (t1 > tMin) tMin = t1;
+        if (t2 < tMax) tMax = t2;
+        return tMin > tMax ? Double.POSITIVE_INFINITY : tMin;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{(" + minX + "," + minY + "," + minZ + ")-(" + maxX + "," + maxY + "," + maxZ + ")}";
+    }
+}
@@ -0,0 +1,479 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Ray;
+import primitives.RayPacket;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Bounding volume hierarchy (BVH) of bounded intersectables. <br/>
+ * The hierarchy is a binary tree of bounding boxes which is built once
+ * with the surface area heuristic (SAH), so a ray is tested only against the
+ * geometries whose boxes it crosses instead of against all of them.
+ * The hierarchy is immutable after it was built.
+ */
+public class BoundingVolumeHierarchy extends Intersectable {
+    /**
+     * maximal amount of geometries in a leaf of the tree, a wide intersection kernel tests
+     * larger leaves together
+     */
+    private static final int MAX_LEAF_SIZE = IntersectionKernel.INSTANCE.width() > 1
+            ? 2 * IntersectionKernel.INSTANCE.width() : 4;
+    /**
+     * cost of an intersection test in a leaf relatively to a single test, for the SAH - the
+     * primitives of a wide kernel cost about a third of a single test
+     */
+    private static final double LEAF_ITEM_COST = IntersectionKernel.INSTANCE.width() > 1 ? 0.3 : 1;
+    /**
+     * amount of buckets that the centroids are binned into while looking for the best split
+     */
+    private static final int BINS = 12;
+    /**
+     * cost of visiting an inner node relatively to an intersection test, for the SAH
+     */
+    private static final double TRAVERSAL_COST = 0.5;
+    /**
+     * a packet whose active rays are at most this part of it goes on ray by ray
+     */
+    private static final int DIVERGENCE_RATIO = 4;
+    /**
+     * the shared test of a box by a whole packet costs about as the tests of this amount of rays,
+     * so smaller groups of rays test the box ray by ray
+     */
+    private static final int SHARED_TEST_RAYS = 4;
+
+    /**
+     * the root of the tree, null if the hierarchy is empty
+     */
+    private final Node root;
+
+    /**
+     * Constructor - builds the hierarchy
+     *
+     * @param intersectables the geometries, all of them must be bounded
+     * @throws IllegalArgumentException if one of the geometries is unbounded
+     */
+    public BoundingVolumeHierarchy(List<? extends Intersectable> intersectables) {
+        int size = intersectables.size();
+        Intersectable[] items = new Intersectable[size];
+        BoundingBox[] boxes = new BoundingBox[size];
+        double[] centers = new double[size * 3];
+        int i = 0;
+        for (Intersectable item : intersectables) {
+            BoundingBox box = item.getBoundingBox();
+            if (box == null)
+                throw new IllegalArgumentException("An unbounded geometry can't be a part of a bounding volume hierarchy");
+            items[i] = item;
+            boxes[i] = box;
+            centers[i * 3] = box.center(0);
+            centers[i * 3 + 1] = box.center(1);
+            centers[i * 3 + 2] = box.center(2);
+            ++i;
+        }
+        root = size == 0 ? null : build(items, boxes, centers, 0, size);
+    }
+
+    /**
+     * get the box of the whole hierarchy
+     *
+     * @return the bounding box, null if the hierarchy is empty
+     */
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return root == null ? null : root.box;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        if (root == null || !root.box.intersects(ray))
+            return null;
+        List<GeoPoint> result = null;
+        // explicit stack instead of recursion - the tree may be deep for huge scenes
+        Node[] stack = new Node[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (node.items != null) {
+                for (Intersectable item : node.items) {
+                    List<GeoPoint> itemPoints = item.findGeoIntersectionsHelper(ray);
+                    if (itemPoints != null) {
+                        if (result == null)
+                            result = new LinkedList<>();
+                        result.addAll(itemPoints);
+                    }
+                }
+                continue;
+            }
+            if (top + 2 > stack.length)
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            if (node.left.box.intersects(ray))
+                stack[top++] = node.left;
+            if (node.right.box.intersects(ray))
+                stack[top++] = node.right;
+        }
+        return result;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        return root == null ? null : findClosest(root, ray, maxDistance);
+    }
+
+    /**
+     * find the closest intersection of a ray with the geometries of a sub tree
+     *
+     * @param start       the root of the sub tree
+     * @param ray         the ray
+     * @param maxDistance the intersections at this distance from the head of the ray or farther are ignored
+     * @return the closest intersection point, null if there is none
+     */
+    private static GeoPoint findClosest(Node start, Ray ray, double maxDistance) {
+        double startEntry = start.box.entryDistance(ray, maxDistance);
+        if (startEntry == Double.POSITIVE_INFINITY)
+            return null;
+        GeoPoint closest = null;
+        // the nodes are visited front to back, every node keeps the distance where the ray enters it
+        // so it is skipped if a closer intersection was found meanwhile
+        Node[] stack = new Node[64];
+        double[] entries = new double[64];
+        // the buffer of the distances of the batches of the leaves
+        double[] distances = null;
+        int top = 0;
+        stack[top] = start;
+        entries[top++] = startEntry;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (entries[top] >= maxDistance)
+                continue;
+            if (node.items != null) {
+                if (node.batch != null) {
+                    if (distances == null || distances.length < node.batch.length())
+                        distances = new double[node.batch.length()];
+                    GeoPoint leafPoint = node.batch.findClosest(node.items, IntersectionKernel.INSTANCE, ray,
+                            maxDistance, distances);
+                    if (leafPoint != null) {
+                        closest = leafPoint;
+                        maxDistance = leafPoint.getDistance(ray);
+                    }
+                    continue;
+                }
+                for (Intersectable item : node.items) {
+                    GeoPoint itemPoint = item.findClosestGeoIntersectionHelper(ray, maxDistance);
+                    if (itemPoint != null) {
+                        closest = itemPoint;
+                        maxDistance = itemPoint.getDistance(ray);
+                    }
+                }
+                continue;
+            }
+            Node near = node.left, far = node.right;
+            double nearEntry = near.box.entryDistance(ray, maxDistance);
+            double farEntry = far.box.entryDistance(ray, maxDistance);
+            if (farEntry < nearEntry) {
+                near = node.right;
+                far = node.left;
+                double tmp = nearEntry;
+                nearEntry = farEntry;
+                farEntry = tmp;
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            // the farther child is pushed first so the closer one is visited first
+            if (farEntry != Double.POSITIVE_INFINITY) {
+                stack[top] = far;
+                entries[top++] = farEntry;
+            }
+            if (nearEntry != Double.POSITIVE_INFINITY) {
+                stack[top] = near;
+                entries[top++] = nearEntry;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * The rays of the packet go down the tree together - a node is visited with the mask of the
+     * rays that may cross its box. The inner boxes of a coherent packet with many active rays are
+     * culled by one shared test of the bounds of the whole packet, the other boxes are tested
+     * against every active ray. When the rays diverge and only a few of them are left in a node,
+     * they go on one by one.
+     */
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet, int mask, double[] maxDistances,
+                                                     GeoPoint[] hits) {
+        if (root == null)
+            return;
+        int minActive = Math.max(1, packet.size / DIVERGENCE_RATIO);
+        Node[] stack = new Node[64];
+        int[] masks = new int[64];
+        int top = 0;
+        stack[top] = root;
+        masks[top++] = mask;
+        while (top > 0) {
+            Node node = stack[--top];
+            // the box is tested when the node is visited, so the intersections that were found
+            // meanwhile already cull it
+            int nodeMask = masks[top];
+            if (packet.coherent && node.items == null && Integer.bitCount(nodeMask) > SHARED_TEST_RAYS) {
+                if (node.box.missedBy(packet, farthest(nodeMask, maxDistances)))
+                    continue;
+            } else if ((nodeMask = node.box.intersects(packet, nodeMask, maxDistances)) == 0)
+                continue;
+            else if (Integer.bitCount(nodeMask) <= minActive) {
+                for (int m = nodeMask; m != 0; m &= m - 1) {
+                    int i = Integer.numberOfTrailingZeros(m);
+                    Ray ray = packet.getRay(i);
+                    GeoPoint hit = findClosest(node, ray, maxDistances[i]);
+                    if (hit != null) {
+                        hits[i] = hit;
+                        maxDistances[i] = hit.getDistance(ray);
+                    }
+                }
+                continue;
+            }
+            if (node.items != null) {
+                for (Intersectable item : node.items)
+                    item.findClosestGeoIntersectionsHelper(packet, nodeMask, maxDistances, hits);
+                continue;
+            }
+            // the left child holds the smaller centers along the axis of the split, so the rays
+            // that go in the negative direction of the axis (by the first active ray) enter the right one first
+            Node near = node.left, far = node.right;
+            int first = Integer.numberOfTrailingZeros(nodeMask);
+            double direction = node.axis == 0 ? packet.dx[first] : node.axis == 1 ? packet.dy[first] : packet.dz[first];
+            if (direction < 0) {
+                near = node.right;
+                far = node.left;
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                masks = Arrays.copyOf(masks, masks.length * 2);
+            }
+            stack[top] = far;
+            masks[top++] = nodeMask;
+            stack[top] = near;
+            masks[top++] = nodeMask;
+        }
+    }
+
+    /**
+     * the largest maximal distance of the rays of a mask
+     */
+    private static double farthest(int mask, double[] maxDistances) {
+        double farthest = 0;
+        for (int m = mask; m != 0; m &= m - 1)
+            farthest = Math.max(farthest, maxDistances[Integer.numberOfTrailingZeros(m)]);
+        return farthest;
+    }
+
+    @Override
+    protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        if (root == null || !root.box.intersects(ray, maxDistance))
+            return ktr;
+        Node[] stack = new Node[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (node.items != null) {
+                for (Intersectable item : node.items) {
+                    ktr = item.findTransmittanceHelper(ray, maxDistance, ktr, minKtr);
+                    // the light is blocked - no need to look further
+                    if (isBlocked(ktr, minKtr))
+                        return Double3.ZERO;
+                }
+                continue;
+            }
+            if (top + 2 > stack.length)
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            if (node.left.box.intersects(ray, maxDistance))
+                stack[top++] = node.left;
+            if (node.right.box.intersects(ray, maxDistance))
+                stack[top++] = node.right;
+        }
+        return ktr;
+    }
+
+    /**
+     * Builds a sub tree of the items in the range [from, to) by the surface area heuristic.
+     * The arrays are reordered in place so every sub tree owns a continuous range.
+     *
+     * @param items   the geometries
+     * @param boxes   the boxes of the geometries
+     * @param centers the centers of the boxes, 3 values per geometry
+     * @param from    first index (included)
+     * @param to      last index (excluded)
+     * @return the root of the sub tree
+     */
+    private static Node build(Intersectable[] items, BoundingBox[] boxes, double[] centers, int from, int to) {
+        BoundingBox box = boxes[from];
+        double cMinX = centers[from * 3], cMinY = centers[from * 3 + 1], cMinZ = centers[from * 3 + 2];
+        double cMaxX = cMinX, cMaxY = cMinY, cMaxZ = cMinZ;
+        for (int i = from + 1; i < to; ++i) {
+            box = box.union(boxes[i]);
+            cMinX = Math.min(cMinX, centers[i * 3]);
+            cMinY = Math.min(cMinY, centers[i * 3 + 1]);
+            cMinZ = Math.min(cMinZ, centers[i * 3 + 2]);
+            cMaxX = Math.max(cMaxX, centers[i * 3]);
+            cMaxY = Math.max(cMaxY, centers[i * 3 + 1]);
+            cMaxZ = Math.max(cMaxZ, centers[i * 3 + 2]);
+        }
+        int count = to - from;
+        if (count <= 1)
+            return new Node(box, items, from, to);
+
+        // the split is done along the axis with the widest spread of the centroids
+        double ex = cMaxX - cMinX, ey = cMaxY - cMinY, ez = cMaxZ - cMinZ;
+        int axis = ex >= ey && ex >= ez ? 0 : ey >= ez ? 1 : 2;
+        double cMin = axis == 0 ? cMinX : axis == 1 ? cMinY : cMinZ;
+        double extent = axis == 0 ? ex : axis == 1 ? ey : ez;
+
+        // all the centroids are in the same place - no split can separate them
+        if (extent <= 0) {
+            if (count <= MAX_LEAF_SIZE)
+                return new Node(box, items, from, to);
+            int mid = (from + to) >>> 1;
+            return new Node(box, axis, build(items, boxes, centers, from, mid), build(items, boxes, centers, mid, to));
+        }
+
+        // bin the centroids and evaluate the SAH cost of a split after every bin
+        int[] binCounts = new int[BINS];
+        BoundingBox[] binBoxes = new BoundingBox[BINS];
+        double scale = BINS / extent;
+        for (int i = from; i < to; ++i) {
+            int b = bin(centers[i * 3 + axis], cMin, scale);
+            ++binCounts[b];
+            binBoxes[b] = binBoxes[b] == null ? boxes[i] : binBoxes[b].union(boxes[i]);
+        }
+
+        double[] leftArea = new double[BINS - 1];
+        int[] leftCount = new int[BINS - 1];
+        BoundingBox acc = null;
+        int n = 0;
+        for (int b = 0; b < BINS - 1; ++b) {
+            if (binBoxes[b] != null)
+                acc = acc == null ? binBoxes[b] : acc.union(binBoxes[b]);
+            n += binCounts[b];
+            leftCount[b] = n;
+            leftArea[b] = acc == null ? 0 : acc.surfaceArea();
+        }
+
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestBin = -1;
+        acc = null;
+        n = 0;
+        for (int b = BINS - 1; b > 0; --b) {
+            if (binBoxes[b] != null)
+                acc = acc == null ? binBoxes[b] : acc.union(binBoxes[b]);
+            n += binCounts[b];
+            if (n == 0 || leftCount[b - 1] == 0)
+                continue;
+            double cost = leftArea[b - 1] * leftCount[b - 1] + acc.surfaceArea() * n;
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestBin = b - 1;
+            }
+        }
+
+        double area = box.surfaceArea();
+        double splitCost = area > 0 ? TRAVERSAL_COST + bestCost / area : 0;
+        if (count <= MAX_LEAF_SIZE && splitCost >= count * LEAF_ITEM_COST)
+            return new Node(box, items, from, to);
+
+        int mid;
+        if (bestBin < 0) {
+            mid = (from + to) >>> 1;
+        } else {
+            // partition the range so the items of the left bins come first
+            int i = from, j = to - 1;
+            while (i <= j) {
+                if (bin(centers[i * 3 + axis], cMin, scale) <= bestBin)
+                    ++i;
+                else
+                    swap(items, boxes, centers, i, j--);
+            }
+            mid = i;
+            if (mid == from || mid == to)
+                mid = (from + to) >>> 1;
+        }
+        return new Node(box, axis, build(items, boxes, centers, from, mid), build(items, boxes, centers, mid, to));
+    }
+
+    /**
+     * find the bin of a centroid coordinate
+     *
+     * @param c     the coordinate
+     * @param min   the minimal coordinate
+     * @param scale amount of bins per length unit
+     * @return the bin index
+     */
+    private static int bin(double c, double min, double scale) {
+        int b = (int) ((c - min) * scale);
+        return b >= BINS ? BINS - 1 : b;
+    }
+
+    /**
+     * swap two items with their boxes and centers
+     */
+    private static void swap(Intersectable[] items, BoundingBox[] boxes, double[] centers, int i, int j) {
+        Intersectable item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+        BoundingBox box = boxes[i];
+        boxes[i] = boxes[j];
+        boxes[j] = box;
+        for (int k = 0; k < 3; ++k) {
+            double c = centers[i * 3 + k];
+            centers[i * 3 + k] = centers[j * 3 + k];
+            centers[j * 3 + k] = c;
+        }
+    }
+
+    /**
+     * A node of the tree - either an inner node with two children or a leaf with a few geometries
+     */
+    private static final class Node {
+        final BoundingBox box;
+        final Node left, right;
+        final Intersectable[] items;
+        /**
+         * the triangles and the spheres of a leaf for the intersection kernel, null if the
+         * kernel is scalar or there are too few of them
+         */
+        final PrimitiveBatch batch;
+        /**
+         * the axis of the split of an inner node (0 for x, 1 for y, 2 for z)
+         */
+        final int axis;
+
+        /**
+         * leaf constructor
+         */
+        Node(BoundingBox box, Intersectable[] items, int from, int to) {
+            this.box = box;
+            this.items = Arrays.copyOfRange(items, from, to);
+            int width = IntersectionKernel.INSTANCE.width();
+            batch = width > 1 && PrimitiveBatch.worthIt(this.items) ? new PrimitiveBatch(this.items, width) : null;
+            left = right = null;
+            axis = 0;
+        }
+
+        /**
+         * inner node constructor
+         */
+        Node(BoundingBox box, int axis, Node left, Node right) {
+            this.box = box;
+            this.axis = axis;
+            this.left = left;
+            this.right = right;
+            items = null;
+            batch = null;
+        }
+    }
+}
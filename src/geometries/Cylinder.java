@@ -47,6 +47,26 @@ public class Cylinder extends Tube {
         }
     }
 
+    /**
+     * The box of the two bases of the cylinder - each base is a disc
+     * whose extent on every axis is radius * sqrt(1 - dir[axis]^2)
+     *
+     * @return the bounding box
+     */
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        Point p0 = axisRay.getP0();
+        Vector dir = axisRay.getDir();
+        Point p1 = axisRay.getPoint(height);
+        double rx = radius * Math.sqrt(Math.max(0, 1 - dir.getX() * dir.getX()));
+        double ry = radius * Math.sqrt(Math.max(0, 1 - dir.getY() * dir.getY()));
+        double rz = radius * Math.sqrt(Math.max(0, 1 - dir.getZ() * dir.getZ()));
+        return new BoundingBox(Math.min(p0.getX(), p1.getX()) - rx, Math.min(p0.getY(), p1.getY()) - ry,
+                Math.min(p0.getZ(), p1.getZ()) - rz,
+                Math.max(p0.getX(), p1.getX()) + rx, Math.max(p0.getY(), p1.getY()) + ry,
+                Math.max(p0.getZ(), p1.getZ()) + rz);
+    }
+
     /**
      * equals
      *
@@ -1,7 +1,10 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Ray;
+import primitives.RayPacket;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -15,6 +18,15 @@ import java.util.List;
  */
 public class Geometries extends Intersectable {
     private List<Intersectable> intersectables;
+    /**
+     * acceleration structure of the bounded geometries, null until {@link #buildBVH()} is called
+     */
+    private volatile BoundingVolumeHierarchy bvh = null;
+    /**
+     * geometries without a bounding box (e.g. planes), they are checked for every ray
+     * (it is valid only while there is a hierarchy)
+     */
+    private List<Intersectable> unbounded = null;
 
     /**
      * Default constructor for Geometries
@@ -44,6 +56,53 @@ public class Geometries extends Intersectable {
         for (var item : intersectables) {
             this.intersectables.add(item);
         }
+        // the hierarchy and the box don't contain the new geometries anymore
+        bvh = null;
+        resetBoundingBox();
+    }
+
+    /**
+     * The box of all the geometries
+     *
+     * @return the bounding box, or null if one of the geometries is unbounded or there are no geometries
+     */
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        BoundingBox box = null;
+        for (var item : intersectables) {
+            BoundingBox itemBox = item.getBoundingBox();
+            if (itemBox == null)
+                return null;
+            box = box == null ? itemBox : box.union(itemBox);
+        }
+        return box;
+    }
+
+    /**
+     * Builds a bounding volume hierarchy of the geometries, should be called once
+     * after all the geometries were added and before rendering. <br/>
+     * Geometries without a bounding box are kept in a separate list which is
+     * checked for every ray. Adding geometries afterwards drops the hierarchy.
+     * If the hierarchy is already built it is kept, so several renderings
+     * of the same scene may call it.
+     *
+     * @return this geometries object
+     */
+    public synchronized Geometries buildBVH() {
+        if (bvh != null)
+            return this;
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> infinite = new ArrayList<>();
+        for (var item : intersectables) {
+            if (item.getBoundingBox() == null)
+                infinite.add(item);
+            else
+                bounded.add(item);
+        }
+        // the list is published by the write of the hierarchy
+        unbounded = infinite;
+        bvh = new BoundingVolumeHierarchy(bounded);
+        return this;
     }
 
     /**
@@ -56,17 +115,89 @@ public class Geometries extends Intersectable {
 
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        BoundingVolumeHierarchy tree = bvh;
+        List<Intersectable> flat = intersectables;
         List<GeoPoint> result = null;
-        for (var item : intersectables) {
+        if (tree != null) {
+            result = tree.findGeoIntersectionsHelper(ray);
+            flat = unbounded;
+        }
+        for (var item : flat) {
+            // skip the shapes whose box is missed by the ray
+            BoundingBox box = item.getBoundingBox();
+            if (box != null && !box.intersects(ray))
+                continue;
             // goes over the shapes in the list and find their intersections
             List<GeoPoint> itemPoints = item.findGeoIntersectionsHelper(ray);
             if (itemPoints != null) {
                 if (result == null) {
-                    result = new LinkedList();
+                    result = new LinkedList<>();
                 }
                 result.addAll(itemPoints);
             }
         }
         return result;
     }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        BoundingVolumeHierarchy tree = bvh;
+        List<Intersectable> flat = intersectables;
+        GeoPoint closest = null;
+        if (tree != null) {
+            closest = tree.findClosestGeoIntersectionHelper(ray, maxDistance);
+            if (closest != null)
+                maxDistance = closest.getDistance(ray);
+            flat = unbounded;
+        }
+        for (var item : flat) {
+            // skip the shapes whose box is missed by the ray or is farther than the closest intersection so far
+            BoundingBox box = item.getBoundingBox();
+            if (box != null && !box.intersects(ray, maxDistance))
+                continue;
+            GeoPoint itemPoint = item.findClosestGeoIntersectionHelper(ray, maxDistance);
+            if (itemPoint != null) {
+                closest = itemPoint;
+                maxDistance = itemPoint.getDistance(ray);
+            }
+        }
+        return closest;
+    }
+
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet, int mask, double[] maxDistances,
+                                                     GeoPoint[] hits) {
+        BoundingVolumeHierarchy tree = bvh;
+        List<Intersectable> flat = intersectables;
+        if (tree != null) {
+            tree.findClosestGeoIntersectionsHelper(packet, mask, maxDistances, hits);
+            flat = unbounded;
+        }
+        for (var item : flat) {
+            // only the rays that cross the box of the shape closer than their closest intersection so far
+            BoundingBox box = item.getBoundingBox();
+            int itemMask = box == null ? mask : box.intersects(packet, mask, maxDistances);
+            if (itemMask != 0)
+                item.findClosestGeoIntersectionsHelper(packet, itemMask, maxDistances, hits);
+        }
+    }
+
+    @Override
+    protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        BoundingVolumeHierarchy tree = bvh;
+        List<Intersectable> flat = intersectables;
+        if (tree != null) {
+            ktr = tree.findTransmittanceHelper(ray, maxDistance, ktr, minKtr);
+            flat = unbounded;
+        }
+        for (var item : flat) {
+            // the light is already blocked
+            if (isBlocked(ktr, minKtr))
+                return Double3.ZERO;
+            BoundingBox box = item.getBoundingBox();
+            if (box == null || box.intersects(ray, maxDistance))
+                ktr = item.findTransmittanceHelper(ray, maxDistance, ktr, minKtr);
+        }
+        return ktr;
+    }
 }
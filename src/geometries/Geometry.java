@@ -1,9 +1,8 @@
 package geometries;
 
-import primitives.Color;
-import primitives.Material;
-import primitives.Point;
-import primitives.Vector;
+import primitives.*;
+
+import java.util.List;
 
 
 /**
@@ -53,6 +52,28 @@ public abstract class Geometry extends Intersectable {
         return this;
     }
 
+    @Override
+    protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        Double3 kT = getMaterial().getkT();
+        // an opaque geometry blocks the light with any intersection
+        if (kT.equals(Double3.ZERO))
+            return findClosestGeoIntersectionHelper(ray, maxDistance) == null ? ktr : Double3.ZERO;
+
+        List<GeoPoint> geoPoints = findGeoIntersectionsHelper(ray);
+        if (geoPoints == null)
+            return ktr;
+        Point p0 = ray.getP0();
+        double maxDistanceSquared = maxDistance * maxDistance;
+        for (GeoPoint geoPoint : geoPoints) {
+            if (geoPoint.point.distanceSquared(p0) < maxDistanceSquared) {
+                ktr = ktr.product(kT); //the more transparency the less shadow
+                if (isBlocked(ktr, minKtr))
+                    return Double3.ZERO;
+            }
+        }
+        return ktr;
+    }
+
     /**
      * Calculates the normal (vertical) vector of a geometry starting at the point that was received
      *
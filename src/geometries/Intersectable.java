@@ -1,14 +1,28 @@
 package geometries;
 
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
+import primitives.RayPacket;
+import primitives.Vector;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * interface to get intersection points of ray with some geometry
  */
 public abstract class Intersectable {
+    /**
+     * the cached bounding box, null if the geometry is unbounded
+     */
+    private BoundingBox boundingBox = null;
+    /**
+     * whether the bounding box was already calculated
+     */
+    private volatile boolean boundingBoxReady = false;
+
     /**
      * find intersections of ray with geometry shape
      *
@@ -38,17 +52,195 @@ public abstract class Intersectable {
     protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray);
 
     /**
-     * A class that contains a point and the geometry that contains it
+     * find the closest intersection of the ray with the geometry
+     *
+     * @param ray ray that cross the geometry
+     * @return the closest intersection point, null if there is none
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersectionHelper(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * find the closest intersection of the ray with the geometry which is closer than a given distance
+     *
+     * @param ray         ray that cross the geometry
+     * @param maxDistance the intersections at this distance from the head of the ray or farther are ignored
+     * @return the closest intersection point, null if there is none
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        return findClosestGeoIntersectionHelper(ray, maxDistance);
+    }
+
+    /**
+     * Finds the closest intersection that is closer than the maximal distance. <br/>
+     * The default implementation picks it from the list of all the intersections,
+     * the geometries override it to reject far intersections without building lists.
+     *
+     * @param ray         ray that cross the geometry
+     * @param maxDistance the intersections at this distance from the head of the ray or farther are ignored
+     * @return the closest intersection point, null if there is none
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> geoPoints = findGeoIntersectionsHelper(ray);
+        if (geoPoints == null)
+            return null;
+        Point p0 = ray.getP0();
+        GeoPoint closest = null;
+        double minDistance = maxDistance * maxDistance;
+        for (GeoPoint geoPoint : geoPoints) {
+            double distance = geoPoint.point.distanceSquared(p0);
+            if (distance < minDistance) {
+                closest = geoPoint;
+                minDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * find the closest intersections of a packet of rays with the geometry
+     *
+     * @param packet the rays
+     * @return the closest intersection of every ray of the packet, null for a ray without intersections
+     */
+    public GeoPoint[] findClosestGeoIntersections(RayPacket packet) {
+        GeoPoint[] hits = new GeoPoint[packet.size];
+        double[] maxDistances = new double[packet.size];
+        Arrays.fill(maxDistances, Double.POSITIVE_INFINITY);
+        findClosestGeoIntersectionsHelper(packet, packet.fullMask(), maxDistances, hits);
+        return hits;
+    }
+
+    /**
+     * Finds the closest intersections of the rays of a packet that are closer than their maximal
+     * distances. A ray that finds a closer intersection gets it in the hits and its distance in
+     * the maximal distances. <br/>
+     * The default implementation traces the rays one by one, the geometries override it to test
+     * all the rays together.
+     *
+     * @param packet       the rays
+     * @param mask         the rays to trace, bit i is the i-th ray
+     * @param maxDistances the maximal distance of every ray, updated by the closer intersections
+     * @param hits         the closest intersection of every ray, updated by the closer intersections
+     */
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet, int mask, double[] maxDistances,
+                                                     GeoPoint[] hits) {
+        for (int m = mask; m != 0; m &= m - 1) {
+            int i = Integer.numberOfTrailingZeros(m);
+            Ray ray = packet.getRay(i);
+            GeoPoint hit = findClosestGeoIntersectionHelper(ray, maxDistances[i]);
+            if (hit != null) {
+                hits[i] = hit;
+                maxDistances[i] = hit.getDistance(ray);
+            }
+        }
+    }
+
+    /**
+     * Occlusion query - finds which part of the light passes along the ray up to a given distance
+     * (e.g. from a point to a light source). <br/>
+     * The transparency coefficients of all the geometries that the ray crosses are multiplied,
+     * and the search stops at the first opaque geometry.
+     *
+     * @param ray         the ray towards the light
+     * @param maxDistance the intersections at this distance from the head of the ray or farther are ignored
+     * @return the transmittance, zero if an opaque geometry blocks the ray
+     */
+    public Double3 findTransmittance(Ray ray, double maxDistance) {
+        return findTransmittance(ray, maxDistance, 0);
+    }
+
+    /**
+     * Occlusion query that stops as soon as the light that passes is too weak to be seen
+     *
+     * @param ray         the ray towards the light
+     * @param maxDistance the intersections at this distance from the head of the ray or farther are ignored
+     * @param minKtr      the transmittance below which the ray counts as blocked
+     * @return the transmittance, zero if it is lower than the minimal transmittance
+     */
+    public Double3 findTransmittance(Ray ray, double maxDistance, double minKtr) {
+        return findTransmittanceHelper(ray, maxDistance, Double3.ONE, minKtr);
+    }
+
+    /**
+     * multiplies the transmittance found so far by the transparency of the geometry for
+     * each intersection that is closer than the maximal distance
+     *
+     * @param ray         the ray towards the light
+     * @param maxDistance the intersections at this distance from the head of the ray or farther are ignored
+     * @param ktr         the transmittance found so far
+     * @param minKtr      the transmittance below which the ray counts as blocked
+     * @return the transmittance, zero if the ray is blocked
+     */
+    protected abstract Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr);
+
+    /**
+     * checks whether the light along a ray is blocked - no need to look further
+     *
+     * @param ktr    the transmittance found so far
+     * @param minKtr the transmittance below which the ray counts as blocked
+     * @return true if the transmittance is zero or lower than the minimal transmittance
+     */
+    protected static boolean isBlocked(Double3 ktr, double minKtr) {
+        return ktr.lowerThan(minKtr) || ktr.equals(Double3.ZERO);
+    }
+
+    /**
+     * get the axis aligned box that bounds the geometry,
+     * the box is calculated once and cached
+     *
+     * @return the bounding box, or null if the geometry is unbounded
+     */
+    public BoundingBox getBoundingBox() {
+        if (!boundingBoxReady) {
+            boundingBox = calcBoundingBox();
+            boundingBoxReady = true;
+        }
+        return boundingBox;
+    }
+
+    /**
+     * calculates the axis aligned box that bounds the geometry
+     *
+     * @return the bounding box, or null if the geometry is unbounded (e.g. a plane)
+     */
+    protected abstract BoundingBox calcBoundingBox();
+
+    /**
+     * drops the cached bounding box, must be called when the geometry changes
+     */
+    protected void resetBoundingBox() {
+        boundingBoxReady = false;
+    }
+
+    /**
+     * A class that contains a point and the geometry that contains it. <br/>
+     * The shading data of the point - the normal, the material and the distance from the head
+     * of the ray - is calculated at the first use and kept, so the shading of a hit doesn't
+     * calculate it again.
      */
     public static class GeoPoint {
         /**
          * the geometry that we find the color of a certain point
          */
-        public Geometry geometry;
+        public final Geometry geometry;
         /**
          * the point on the geometry that we get the color from
          */
-        public Point point;
+        public final Point point;
+        /**
+         * the distance from the head of the ray to the point, NaN until it is known
+         */
+        private double t;
+        /**
+         * the normal of the geometry at the point, null until it is calculated
+         */
+        private Vector normal = null;
+        /**
+         * the material of the geometry at the point, null until it is found
+         */
+        private Material material = null;
 
         /**
          * constructor for the GeoPoint class
@@ -57,8 +249,57 @@ public abstract class Intersectable {
          * @param point    the point that interact the geometry
          */
         public GeoPoint(Geometry geometry, Point point) {
+            this(geometry, point, Double.NaN);
+        }
+
+        /**
+         * constructor for the GeoPoint class with the distance of the point along the ray
+         *
+         * @param geometry the geometry
+         * @param point    the point that interact the geometry
+         * @param t        the distance from the head of the ray to the point
+         */
+        public GeoPoint(Geometry geometry, Point point, double t) {
             this.geometry = geometry;
             this.point = point;
+            this.t = t;
+        }
+
+        /**
+         * get the normal of the geometry at the point, it is calculated once
+         *
+         * @return the normal
+         */
+        public Vector getNormal() {
+            if (normal == null)
+                normal = geometry.getNormal(point);
+            return normal;
+        }
+
+        /**
+         * get the material of the geometry at the point, it is found once
+         *
+         * @return the material
+         */
+        public Material getMaterial() {
+            if (material == null)
+                material = geometry.getMaterial();
+            return material;
+        }
+
+        /**
+         * get the distance along the ray that produced the intersection, from its head to the
+         * point. It is calculated once if the intersection didn't know it - after that, and when
+         * the intersection knew it, the ray is not used, so the distance from the head of any other
+         * ray is not found by this method
+         *
+         * @param ray the ray that produced the intersection
+         * @return the distance
+         */
+        public double getDistance(Ray ray) {
+            if (Double.isNaN(t))
+                t = point.distance(ray.getP0());
+            return t;
         }
 
         /**
@@ -0,0 +1,82 @@
+package geometries;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Intersection of one ray with many triangles or spheres that are kept as a structure of
+ * arrays ({@link PrimitiveBatch}). <br/>
+ * The kernel that is used is {@link #INSTANCE}. A kernel on the SIMD instructions of the
+ * JDK Vector API (in the source root src-vector) is loaded if it was compiled into the class
+ * path and the JVM runs with {@code --add-modules jdk.incubator.vector}, otherwise the scalar
+ * kernel is used. The IDE project compiles src-vector with that option and its run
+ * configurations pass it to the JVM. The property {@code geometries.vector=false} turns the
+ * vector kernel off.
+ * All the kernels give exactly the distances of the scalar calculations of
+ * {@link Triangle} and {@link Sphere}.
+ */
+interface IntersectionKernel {
+    /**
+     * the kernel of the intersections
+     */
+    IntersectionKernel INSTANCE = load();
+
+    /**
+     * the amount of primitives that the kernel tests together, the arrays of a batch are
+     * padded to a multiple of it
+     *
+     * @return the width of the kernel
+     */
+    int width();
+
+    /**
+     * find the distances from the head of a ray to all the triangles of a batch, every
+     * distance is positive infinity if the ray misses the triangle
+     *
+     * @param ox        x of the head of the ray
+     * @param oy        y of the head of the ray
+     * @param oz        z of the head of the ray
+     * @param dx        x of the direction of the ray
+     * @param dy        y of the direction of the ray
+     * @param dz        z of the direction of the ray
+     * @param batch     the triangles
+     * @param distances the distances of the triangles, from index 0
+     */
+    void intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                            PrimitiveBatch batch, double[] distances);
+
+    /**
+     * find the distances from the head of a ray to all the spheres of a batch, every
+     * distance is positive infinity if the ray misses the sphere and NaN if the head of
+     * the ray is the center of the sphere
+     *
+     * @param ox        x of the head of the ray
+     * @param oy        y of the head of the ray
+     * @param oz        z of the head of the ray
+     * @param dx        x of the direction of the ray
+     * @param dy        y of the direction of the ray
+     * @param dz        z of the direction of the ray
+     * @param batch     the spheres
+     * @param distances the distances of the spheres, from index {@link PrimitiveBatch#sphereOffset}
+     */
+    void intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                          PrimitiveBatch batch, double[] distances);
+
+    /**
+     * load the vector kernel if it is available, otherwise the scalar kernel
+     *
+     * @return the kernel
+     */
+    private static IntersectionKernel load() {
+        if (!Boolean.parseBoolean(System.getProperty("geometries.vector", "true")))
+            return new ScalarIntersectionKernel();
+        try {
+            return (IntersectionKernel) Class.forName("geometries.VectorIntersectionKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // the kernel was not compiled or the module of the vector API is absent
+            Logger.getLogger("IntersectionKernel").log(Level.FINE, "The vector kernel is not available", e);
+            return new ScalarIntersectionKernel();
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package geometries;
+
+import primitives.*;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Indexed triangle mesh. <br/>
+ * The vertices and the faces are kept in primitive buffers that are shared by all the faces,
+ * instead of a Triangle object (with its own list of points and plane) per face. The buffers
+ * wrap arrays, or a file that was mapped by {@link MeshCache}. The
+ * faces are found by an internal bounding volume hierarchy. The mesh is a single
+ * intersectable in the scene, its intersections carry a light {@link Face} object as their
+ * geometry so the shading gets the normal and the material of the face that was hit.
+ */
+public class Mesh extends Geometry {
+    /**
+     * the coordinates of the vertices, 3 values per vertex
+     */
+    private final FloatBuffer vertices;
+    /**
+     * the indices of the vertices of the faces, 3 values per face
+     */
+    private final IntBuffer indices;
+    /**
+     * the hierarchy of the faces
+     */
+    private final MeshBVH bvh;
+    /**
+     * the materials of the faces, null if the whole mesh has one material
+     */
+    private Material[] faceMaterials = null;
+    /**
+     * the index of the material of every face in faceMaterials
+     */
+    private int[] faceMaterialIds = null;
+
+    /**
+     * Constructor - builds the mesh and its hierarchy
+     *
+     * @param vertices the coordinates of the vertices, 3 values per vertex
+     * @param indices  the indices of the vertices of the faces, 3 values per face (the arrays are not copied)
+     * @throws IllegalArgumentException if the arrays are not of triads or an index is not of a vertex
+     */
+    public Mesh(float[] vertices, int[] indices) {
+        if (vertices.length % 3 != 0)
+            throw new IllegalArgumentException("The vertices must be triads of coordinates");
+        if (indices.length % 3 != 0)
+            throw new IllegalArgumentException("The faces must be triangles");
+        int vertexCount = vertices.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("Face index " + index + " is not of a vertex");
+        this.vertices = FloatBuffer.wrap(vertices);
+        this.indices = IntBuffer.wrap(indices);
+        bvh = new MeshBVH(this.vertices, this.indices);
+    }
+
+    /**
+     * Constructor of a mesh that was already built, e.g. mapped from a file by {@link MeshCache}
+     *
+     * @param vertices the coordinates of the vertices, 3 values per vertex
+     * @param indices  the indices of the vertices of the faces, 3 values per face
+     * @param bvh      the hierarchy of the faces
+     */
+    Mesh(FloatBuffer vertices, IntBuffer indices, MeshBVH bvh) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.bvh = bvh;
+    }
+
+    /**
+     * get the coordinates of the vertices
+     *
+     * @return a read only view of the vertices, 3 values per vertex
+     */
+    FloatBuffer getVertices() {
+        return vertices.asReadOnlyBuffer();
+    }
+
+    /**
+     * get the indices of the vertices of the faces
+     *
+     * @return a read only view of the indices, 3 values per face
+     */
+    IntBuffer getIndices() {
+        return indices.asReadOnlyBuffer();
+    }
+
+    /**
+     * get the hierarchy of the faces
+     *
+     * @return the hierarchy
+     */
+    MeshBVH getBVH() {
+        return bvh;
+    }
+
+    /**
+     * get the amount of vertices
+     *
+     * @return amount of vertices
+     */
+    public int getVertexCount() {
+        return vertices.limit() / 3;
+    }
+
+    /**
+     * get the amount of faces
+     *
+     * @return amount of faces
+     */
+    public int getFaceCount() {
+        return indices.limit() / 3;
+    }
+
+    /**
+     * set a material per face, the material of the mesh is used by the faces without a material
+     *
+     * @param materials   the materials
+     * @param materialIds the index of the material of every face, a negative index for the material of the mesh
+     * @return the Mesh object
+     * @throws IllegalArgumentException if there isn't an index per face or an index is not of a material
+     */
+    public Mesh setFaceMaterials(Material[] materials, int[] materialIds) {
+        if (materialIds.length != getFaceCount())
+            throw new IllegalArgumentException("There must be a material index per face");
+        for (int id : materialIds)
+            if (id >= materials.length)
+                throw new IllegalArgumentException("Material index " + id + " is not of a material");
+        faceMaterials = materials;
+        faceMaterialIds = materialIds;
+        return this;
+    }
+
+    /**
+     * get the material of a face
+     *
+     * @param face the index of the face
+     * @return the material
+     */
+    public Material getMaterial(int face) {
+        if (faceMaterials == null || faceMaterialIds[face] < 0)
+            return getMaterial();
+        return faceMaterials[faceMaterialIds[face]];
+    }
+
+    /**
+     * get the normal of a face, the faces are counter clockwise when seen from the side of the normal
+     *
+     * @param face the index of the face
+     * @return the normal
+     */
+    public Vector getNormal(int face) {
+        int a = indices.get(face * 3) * 3, b = indices.get(face * 3 + 1) * 3, c = indices.get(face * 3 + 2) * 3;
+        Vec3 e1 = new Vec3(vertices.get(b) - vertices.get(a), vertices.get(b + 1) - vertices.get(a + 1), vertices.get(b + 2) - vertices.get(a + 2));
+        Vec3 e2 = new Vec3(vertices.get(c) - vertices.get(a), vertices.get(c + 1) - vertices.get(a + 1), vertices.get(c + 2) - vertices.get(a + 2));
+        return e1.setCross(e1, e2).normalize().toVector();
+    }
+
+    /**
+     * the normal of the face that is closest to the point, by the distance from the point to the
+     * triangle of the face. The hierarchy is searched nearer node first, and a node whose box is
+     * farther than the closest face so far is skipped. The intersections of the mesh already
+     * have their {@link Face}, so it is faster to take the normal from the face
+     *
+     * @param p is a point on the mesh
+     * @return the normal
+     * @throws IllegalArgumentException if the mesh has no faces
+     */
+    @Override
+    public Vector getNormal(Point p) {
+        if (bvh.nodeCount == 0)
+            throw new IllegalArgumentException("The mesh has no faces");
+        double px = p.getX(), py = p.getY(), pz = p.getZ();
+        int closest = -1;
+        double minDistance = Double.POSITIVE_INFINITY;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (bvh.distanceSquared(node, px, py, pz) >= minDistance)
+                continue;
+            int count = bvh.nodes.get(node * 2 + 1);
+            if (count > 0) {
+                int first = bvh.nodes.get(node * 2);
+                for (int i = first; i < first + count; ++i) {
+                    int face = bvh.faces.get(i);
+                    double distance = distanceSquared(face, px, py, pz);
+                    if (distance < minDistance) {
+                        minDistance = distance;
+                        closest = face;
+                    }
+                }
+                continue;
+            }
+            if (top + 2 > stack.length)
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            // the nearer child is visited first, so the farther one is more likely to be skipped
+            int left = node + 1, right = bvh.nodes.get(node * 2);
+            boolean leftNearer = bvh.distanceSquared(left, px, py, pz) <= bvh.distanceSquared(right, px, py, pz);
+            stack[top++] = leftNearer ? right : left;
+            stack[top++] = leftNearer ? left : right;
+        }
+        return getNormal(closest);
+    }
+
+    /**
+     * the squared distance from a point to the triangle of a face - the closest point of the
+     * triangle is found by the region of the point around the vertices and the edges
+     * (Ericson, Real-Time Collision Detection 5.1.5)
+     *
+     * @param face the index of the face
+     * @param px   x of the point
+     * @param py   y of the point
+     * @param pz   z of the point
+     * @return the squared distance
+     */
+    private double distanceSquared(int face, double px, double py, double pz) {
+        int a = indices.get(face * 3) * 3, b = indices.get(face * 3 + 1) * 3, c = indices.get(face * 3 + 2) * 3;
+        Vec3 pA = new Vec3(vertices.get(a), vertices.get(a + 1), vertices.get(a + 2));
+        Vec3 ab = new Vec3(vertices.get(b), vertices.get(b + 1), vertices.get(b + 2)).addScaled(pA, -1);
+        Vec3 ac = new Vec3(vertices.get(c), vertices.get(c + 1), vertices.get(c + 2)).addScaled(pA, -1);
+        Vec3 ap = new Vec3(px, py, pz).addScaled(pA, -1);
+        Vec3 closest = new Vec3();
+
+        double d1 = ab.dotProduct(ap), d2 = ac.dotProduct(ap);
+        // d3, d4 are of the point from b = ap - ab, d5, d6 are of the point from c = ap - ac
+        double abab = ab.dotProduct(ab), acac = ac.dotProduct(ac), abac = ab.dotProduct(ac);
+        double d3 = d1 - abab, d4 = d2 - abac;
+        double d5 = d1 - abac, d6 = d2 - acac;
+        double va = d3 * d6 - d5 * d4, vb = d5 * d2 - d1 * d6, vc = d1 * d4 - d3 * d2;
+        if (d1 <= 0 && d2 <= 0)
+            closest.set(0, 0, 0); // vertex a
+        else if (d3 >= 0 && d4 <= d3)
+            closest.set(ab.x, ab.y, ab.z); // vertex b
+        else if (vc <= 0 && d1 >= 0 && d3 <= 0)
+            closest.set(0, 0, 0).addScaled(ab, d1 / (d1 - d3)); // edge ab
+        else if (d6 >= 0 && d5 <= d6)
+            closest.set(ac.x, ac.y, ac.z); // vertex c
+        else if (vb <= 0 && d2 >= 0 && d6 <= 0)
+            closest.set(0, 0, 0).addScaled(ac, d2 / (d2 - d6)); // edge ac
+        else if (va <= 0 && d4 - d3 >= 0 && d5 - d6 >= 0) {
+            double w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+            closest.set(ab.x, ab.y, ab.z).addScaled(ab, -w).addScaled(ac, w); // edge bc
+        } else {
+            double denominator = va + vb + vc;
+            closest.set(0, 0, 0).addScaled(ab, vb / denominator).addScaled(ac, vc / denominator); // inside
+        }
+        return closest.addScaled(ap, -1).lengthSquared();
+    }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return bvh.getBoundingBox();
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        if (bvh.nodeCount == 0)
+            return null;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double invX = 1 / dx, invY = 1 / dy, invZ = 1 / dz;
+        List<GeoPoint> result = null;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (bvh.entryDistance(node, ox, oy, oz, invX, invY, invZ, Double.POSITIVE_INFINITY) == Double.POSITIVE_INFINITY)
+                continue;
+            int count = bvh.nodes.get(node * 2 + 1);
+            if (count > 0) {
+                int first = bvh.nodes.get(node * 2);
+                for (int i = first; i < first + count; ++i) {
+                    int face = bvh.faces.get(i);
+                    double t = intersect(face, ox, oy, oz, dx, dy, dz);
+                    if (t != Double.POSITIVE_INFINITY) {
+                        if (result == null)
+                            result = new LinkedList<>();
+                        result.add(new GeoPoint(new Face(face), ray.getPoint(t), t));
+                    }
+                }
+                continue;
+            }
+            if (top + 2 > stack.length)
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            stack[top++] = bvh.nodes.get(node * 2);
+            stack[top++] = node + 1;
+        }
+        return result;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        if (bvh.nodeCount == 0)
+            return null;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double invX = 1 / dx, invY = 1 / dy, invZ = 1 / dz;
+        double rootEntry = bvh.entryDistance(0, ox, oy, oz, invX, invY, invZ, maxDistance);
+        if (rootEntry == Double.POSITIVE_INFINITY)
+            return null;
+        int closest = -1;
+        // the nodes are visited front to back, every node keeps the distance where the ray enters it
+        // so it is skipped if a closer intersection was found meanwhile
+        int[] stack = new int[64];
+        double[] entries = new double[64];
+        int top = 0;
+        stack[top] = 0;
+        entries[top++] = rootEntry;
+        while (top > 0) {
+            int node = stack[--top];
+            if (entries[top] >= maxDistance)
+                continue;
+            int count = bvh.nodes.get(node * 2 + 1);
+            if (count > 0) {
+                int first = bvh.nodes.get(node * 2);
+                for (int i = first; i < first + count; ++i) {
+                    int face = bvh.faces.get(i);
+                    double t = intersect(face, ox, oy, oz, dx, dy, dz);
+                    if (t < maxDistance) {
+                        maxDistance = t;
+                        closest = face;
+                    }
+                }
+                continue;
+            }
+            int near = node + 1, far = bvh.nodes.get(node * 2);
+            double nearEntry = bvh.entryDistance(near, ox, oy, oz, invX, invY, invZ, maxDistance);
+            double farEntry = bvh.entryDistance(far, ox, oy, oz, invX, invY, invZ, maxDistance);
+            if (farEntry < nearEntry) {
+                int tmpNode = near;
+                near = far;
+                far = tmpNode;
+                double tmp = nearEntry;
+                nearEntry = farEntry;
+                farEntry = tmp;
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            // the farther child is pushed first so the closer one is visited first
+            if (farEntry != Double.POSITIVE_INFINITY) {
+                stack[top] = far;
+                entries[top++] = farEntry;
+            }
+            if (nearEntry != Double.POSITIVE_INFINITY) {
+                stack[top] = near;
+                entries[top++] = nearEntry;
+            }
+        }
+        return closest < 0 ? null : new GeoPoint(new Face(closest), ray.getPoint(maxDistance), maxDistance);
+    }
+
+    @Override
+    protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        // an opaque mesh blocks the light with any intersection
+        if (faceMaterials == null && getMaterial().getkT().equals(Double3.ZERO))
+            return findClosestGeoIntersectionHelper(ray, maxDistance) == null ? ktr : Double3.ZERO;
+        if (bvh.nodeCount == 0)
+            return ktr;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double invX = 1 / dx, invY = 1 / dy, invZ = 1 / dz;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (bvh.entryDistance(node, ox, oy, oz, invX, invY, invZ, maxDistance) == Double.POSITIVE_INFINITY)
+                continue;
+            int count = bvh.nodes.get(node * 2 + 1);
+            if (count > 0) {
+                int first = bvh.nodes.get(node * 2);
+                for (int i = first; i < first + count; ++i) {
+                    int face = bvh.faces.get(i);
+                    if (intersect(face, ox, oy, oz, dx, dy, dz) < maxDistance) {
+                        ktr = ktr.product(getMaterial(face).getkT()); //the more transparency the less shadow
+                        // the light is blocked - no need to look further
+                        if (isBlocked(ktr, minKtr))
+                            return Double3.ZERO;
+                    }
+                }
+                continue;
+            }
+            if (top + 2 > stack.length)
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            stack[top++] = bvh.nodes.get(node * 2);
+            stack[top++] = node + 1;
+        }
+        return ktr;
+    }
+
+    /**
+     * intersect a ray with a face
+     *
+     * @param face the index of the face
+     * @param ox   x of the head of the ray
+     * @param oy   y of the head of the ray
+     * @param oz   z of the head of the ray
+     * @param dx   x of the direction of the ray
+     * @param dy   y of the direction of the ray
+     * @param dz   z of the direction of the ray
+     * @return the distance along the ray, positive infinity if the ray misses the face
+     */
+    private double intersect(int face, double ox, double oy, double oz, double dx, double dy, double dz) {
+        int a = indices.get(face * 3) * 3, b = indices.get(face * 3 + 1) * 3, c = indices.get(face * 3 + 2) * 3;
+        double ax = vertices.get(a), ay = vertices.get(a + 1), az = vertices.get(a + 2);
+        return Triangle.intersect(ox, oy, oz, dx, dy, dz, ax, ay, az,
+                vertices.get(b) - ax, vertices.get(b + 1) - ay, vertices.get(b + 2) - az,
+                vertices.get(c) - ax, vertices.get(c + 1) - ay, vertices.get(c + 2) - az, null);
+    }
+
+    /**
+     * A face of the mesh, it is created for the intersections of the mesh so the shading
+     * gets the normal and the material of the face. It keeps only the index of the face.
+     */
+    public final class Face extends Geometry {
+        private final int face;
+
+        /**
+         * Constructor of a face
+         *
+         * @param face the index of the face
+         */
+        private Face(int face) {
+            this.face = face;
+        }
+
+        /**
+         * get the index of the face in the mesh
+         *
+         * @return the index of the face
+         */
+        public int getIndex() {
+            return face;
+        }
+
+        /**
+         * get the mesh of the face
+         *
+         * @return the mesh
+         */
+        public Mesh getMesh() {
+            return Mesh.this;
+        }
+
+        @Override
+        public Color getEmission() {
+            return Mesh.this.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return Mesh.this.getMaterial(face);
+        }
+
+        @Override
+        public Vector getNormal(Point p) {
+            return Mesh.this.getNormal(face);
+        }
+
+        @Override
+        protected BoundingBox calcBoundingBox() {
+            int a = indices.get(face * 3) * 3, b = indices.get(face * 3 + 1) * 3, c = indices.get(face * 3 + 2) * 3;
+            return new BoundingBox(new Point(vertices.get(a), vertices.get(a + 1), vertices.get(a + 2)),
+                    new Point(vertices.get(b), vertices.get(b + 1), vertices.get(b + 2)),
+                    new Point(vertices.get(c), vertices.get(c + 1), vertices.get(c + 2)));
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            GeoPoint geoPoint = findClosestGeoIntersectionHelper(ray, Double.POSITIVE_INFINITY);
+            return geoPoint == null ? null : List.of(geoPoint);
+        }
+
+        @Override
+        protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+            Point p0 = ray.getP0();
+            Vector dir = ray.getDir();
+            double t = intersect(face, p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ());
+            return t < maxDistance ? new GeoPoint(this, ray.getPoint(t), t) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            return o instanceof Face other && other.getMesh() == Mesh.this && other.face == face;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(Mesh.this) * 31 + face;
+        }
+    }
+}
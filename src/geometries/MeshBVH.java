@@ -0,0 +1,353 @@
+package geometries;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Bounding volume hierarchy of the faces of a mesh, kept in flat primitive arrays. <br/>
+ * The vertices of a mesh are floats, so the boxes are kept as floats too without any loss.
+ * The arrays are buffers, so a tree that was saved by {@link MeshCache} is used straight
+ * from the mapped file.
+ * The nodes are stored depth first - the left child of a node is the next node - and each
+ * node has 6 bounds (minimal x, y, z then maximal x, y, z) and 2 ints: an inner node keeps the
+ * index of its right child and 0, a leaf keeps the index of its first face in {@link #faces}
+ * and the amount of its faces. The tree is built with the surface area heuristic like
+ * {@link BoundingVolumeHierarchy}.
+ */
+final class MeshBVH {
+    /**
+     * maximal amount of faces in a leaf of the tree
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+    /**
+     * amount of buckets that the centroids are binned into while looking for the best split
+     */
+    private static final int BINS = 12;
+    /**
+     * cost of visiting an inner node relatively to an intersection test, for the SAH
+     */
+    private static final double TRAVERSAL_COST = 0.5;
+
+    /**
+     * the bounds of the nodes, 6 values per node
+     */
+    final FloatBuffer bounds;
+    /**
+     * the links of the nodes, 2 values per node
+     */
+    final IntBuffer nodes;
+    /**
+     * the indices of the faces in the order of the leaves
+     */
+    final IntBuffer faces;
+    /**
+     * amount of nodes in the tree
+     */
+    final int nodeCount;
+
+    /**
+     * the nodes while the tree is built, they are trimmed at the end
+     */
+    private float[] nodeBounds;
+    private int[] nodeLinks;
+    private int[] order;
+    private int size = 0;
+
+    /**
+     * Constructor - builds the hierarchy of the triangles of a mesh
+     *
+     * @param vertices the coordinates of the vertices, 3 values per vertex
+     * @param indices  the indices of the vertices of the faces, 3 values per face
+     */
+    MeshBVH(FloatBuffer vertices, IntBuffer indices) {
+        int faceCount = indices.limit() / 3;
+        order = new int[faceCount];
+        float[] boxes = new float[faceCount * 6];
+        for (int f = 0; f < faceCount; ++f) {
+            order[f] = f;
+            for (int k = 0; k < 3; ++k) {
+                float a = vertices.get(indices.get(f * 3) * 3 + k);
+                float b = vertices.get(indices.get(f * 3 + 1) * 3 + k);
+                float c = vertices.get(indices.get(f * 3 + 2) * 3 + k);
+                boxes[f * 6 + k] = Math.min(a, Math.min(b, c));
+                boxes[f * 6 + 3 + k] = Math.max(a, Math.max(b, c));
+            }
+        }
+        // the leaves have a few faces, so there are usually less nodes than faces
+        int capacity = Math.max(faceCount, 1);
+        nodeBounds = new float[capacity * 6];
+        nodeLinks = new int[capacity * 2];
+        if (faceCount > 0)
+            build(boxes, 0, faceCount);
+        nodeCount = size;
+        bounds = FloatBuffer.wrap(Arrays.copyOf(nodeBounds, nodeCount * 6));
+        nodes = IntBuffer.wrap(Arrays.copyOf(nodeLinks, nodeCount * 2));
+        faces = IntBuffer.wrap(order);
+        nodeBounds = null;
+        nodeLinks = null;
+        order = null;
+    }
+
+    /**
+     * Constructor of a tree that was already built
+     *
+     * @param bounds the bounds of the nodes, 6 values per node
+     * @param nodes  the links of the nodes, 2 values per node
+     * @param faces  the indices of the faces in the order of the leaves
+     */
+    MeshBVH(FloatBuffer bounds, IntBuffer nodes, IntBuffer faces) {
+        this.bounds = bounds;
+        this.nodes = nodes;
+        this.faces = faces;
+        nodeCount = nodes.limit() / 2;
+    }
+
+    /**
+     * Builds a sub tree of the faces in the range [from, to) by the surface area heuristic.
+     * The arrays are reordered in place so every sub tree owns a continuous range.
+     *
+     * @param boxes the boxes of the faces, 6 values per face
+     * @param from  first index (included)
+     * @param to    last index (excluded)
+     */
+    private void build(float[] boxes, int from, int to) {
+        if (size == nodeLinks.length / 2) {
+            nodeBounds = Arrays.copyOf(nodeBounds, nodeBounds.length * 2);
+            nodeLinks = Arrays.copyOf(nodeLinks, nodeLinks.length * 2);
+        }
+        int node = size++;
+        double[] box = new double[6];
+        emptyBox(box, 0);
+        for (int i = from; i < to; ++i)
+            growBox(box, 0, boxes, i);
+        for (int k = 0; k < 6; ++k)
+            nodeBounds[node * 6 + k] = (float) box[k];
+
+        int count = to - from;
+        double cMinX = center(boxes, from, 0), cMinY = center(boxes, from, 1), cMinZ = center(boxes, from, 2);
+        double cMaxX = cMinX, cMaxY = cMinY, cMaxZ = cMinZ;
+        for (int i = from + 1; i < to; ++i) {
+            double cx = center(boxes, i, 0), cy = center(boxes, i, 1), cz = center(boxes, i, 2);
+            cMinX = Math.min(cMinX, cx);
+            cMinY = Math.min(cMinY, cy);
+            cMinZ = Math.min(cMinZ, cz);
+            cMaxX = Math.max(cMaxX, cx);
+            cMaxY = Math.max(cMaxY, cy);
+            cMaxZ = Math.max(cMaxZ, cz);
+        }
+
+        // the split is done along the axis with the widest spread of the centroids
+        double ex = cMaxX - cMinX, ey = cMaxY - cMinY, ez = cMaxZ - cMinZ;
+        int axis = ex >= ey && ex >= ez ? 0 : ey >= ez ? 1 : 2;
+        double cMin = axis == 0 ? cMinX : axis == 1 ? cMinY : cMinZ;
+        double extent = axis == 0 ? ex : axis == 1 ? ey : ez;
+
+        int mid = -1;
+        if (count > 1 && extent > 0) {
+            // bin the centroids and evaluate the SAH cost of a split after every bin
+            int[] binCounts = new int[BINS];
+            double[] binBoxes = new double[BINS * 6];
+            for (int b = 0; b < BINS; ++b)
+                emptyBox(binBoxes, b);
+            double scale = BINS / extent;
+            for (int i = from; i < to; ++i) {
+                int b = bin(center(boxes, i, axis), cMin, scale);
+                ++binCounts[b];
+                growBox(binBoxes, b, boxes, i);
+            }
+
+            double[] leftArea = new double[BINS - 1];
+            int[] leftCount = new int[BINS - 1];
+            double[] acc = new double[6];
+            emptyBox(acc, 0);
+            int n = 0;
+            for (int b = 0; b < BINS - 1; ++b) {
+                growBox(acc, 0, binBoxes, b);
+                n += binCounts[b];
+                leftCount[b] = n;
+                leftArea[b] = n == 0 ? 0 : surfaceArea(acc, 0);
+            }
+
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestBin = -1;
+            emptyBox(acc, 0);
+            n = 0;
+            for (int b = BINS - 1; b > 0; --b) {
+                growBox(acc, 0, binBoxes, b);
+                n += binCounts[b];
+                if (n == 0 || leftCount[b - 1] == 0)
+                    continue;
+                double cost = leftArea[b - 1] * leftCount[b - 1] + surfaceArea(acc, 0) * n;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestBin = b - 1;
+                }
+            }
+
+            double area = surfaceArea(box, 0);
+            double splitCost = area > 0 ? TRAVERSAL_COST + bestCost / area : 0;
+            if (count > MAX_LEAF_SIZE || splitCost < count) {
+                if (bestBin >= 0) {
+                    // partition the range so the faces of the left bins come first
+                    int i = from, j = to - 1;
+                    while (i <= j) {
+                        if (bin(center(boxes, i, axis), cMin, scale) <= bestBin)
+                            ++i;
+                        else
+                            swap(boxes, i, j--);
+                    }
+                    mid = i;
+                }
+                if (mid <= from || mid >= to)
+                    mid = (from + to) >>> 1;
+            }
+        } else if (count > MAX_LEAF_SIZE) {
+            // all the centroids are in the same place - no split can separate them
+            mid = (from + to) >>> 1;
+        }
+
+        if (mid < 0) {
+            nodeLinks[node * 2] = from;
+            nodeLinks[node * 2 + 1] = count;
+            return;
+        }
+        build(boxes, from, mid);
+        nodeLinks[node * 2] = size;
+        nodeLinks[node * 2 + 1] = 0;
+        build(boxes, mid, to);
+    }
+
+    /**
+     * the squared distance from a point to the box of a node, 0 if the point is in the box
+     *
+     * @param node the node
+     * @param px   x of the point
+     * @param py   y of the point
+     * @param pz   z of the point
+     * @return the squared distance
+     */
+    double distanceSquared(int node, double px, double py, double pz) {
+        int b = node * 6;
+        double dx = Math.max(0, Math.max(bounds.get(b) - px, px - bounds.get(b + 3)));
+        double dy = Math.max(0, Math.max(bounds.get(b + 1) - py, py - bounds.get(b + 4)));
+        double dz = Math.max(0, Math.max(bounds.get(b + 2) - pz, pz - bounds.get(b + 5)));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Slab test - finds the distance from the head of the ray to the point where it enters the box of a node
+     *
+     * @param node        the node
+     * @param ox          x of the head of the ray
+     * @param oy          y of the head of the ray
+     * @param oz          z of the head of the ray
+     * @param invX        1 / x of the direction of the ray
+     * @param invY        1 / y of the direction of the ray
+     * @param invZ        1 / z of the direction of the ray
+     * @param maxDistance maximal distance from the head of the ray
+     * @return the entry distance, or positive infinity if the ray misses the box before the maximal distance
+     */
+    double entryDistance(int node, double ox, double oy, double oz,
+                         double invX, double invY, double invZ, double maxDistance) {
+        int b = node * 6;
+        double tMin = 0, tMax = maxDistance;
+        double t1 = (bounds.get(b) - ox) * invX, t2 = (bounds.get(b + 3) - ox) * invX;
+        // NaN (ray parallel to a slab and starts on its border) is ignored by the comparisons
+        if (Math.min(t1, t2) > tMin) tMin = Math.min(t1, t2);
+        if (Math.max(t1, t2) < tMax) tMax = Math.max(t1, t2);
+        t1 = (bounds.get(b + 1) - oy) * invY;
+        t2 = (bounds.get(b + 4) - oy) * invY;
+        if (Math.min(t1, t2) > tMin) tMin = Math.min(t1, t2);
+        if (Math.max(t1, t2) < tMax) tMax = Math.max(t1, t2);
+        t1 = (bounds.get(b + 2) - oz) * invZ;
+        t2 = (bounds.get(b + 5) - oz) * invZ;
+        if (Math.min(t1, t2) > tMin) tMin = Math.min(t1, t2);
+        if (Math.max(t1, t2) < tMax) tMax = Math.max(t1, t2);
+        return tMin > tMax ? Double.POSITIVE_INFINITY : tMin;
+    }
+
+    /**
+     * the box of the whole tree
+     *
+     * @return the bounding box, null if the tree is empty
+     */
+    BoundingBox getBoundingBox() {
+        return nodeCount == 0 ? null
+                : new BoundingBox(bounds.get(0), bounds.get(1), bounds.get(2), bounds.get(3), bounds.get(4), bounds.get(5));
+    }
+
+    /**
+     * the center of the box of a face on one of the axes
+     */
+    private static double center(float[] boxes, int i, int axis) {
+        return ((double) boxes[i * 6 + axis] + boxes[i * 6 + 3 + axis]) / 2;
+    }
+
+    /**
+     * set a box to be empty (minimal bounds at positive infinity)
+     */
+    private static void emptyBox(double[] boxes, int i) {
+        for (int k = 0; k < 3; ++k) {
+            boxes[i * 6 + k] = Double.POSITIVE_INFINITY;
+            boxes[i * 6 + 3 + k] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * grow a box so it contains another box
+     */
+    private static void growBox(double[] boxes, int i, float[] other, int j) {
+        for (int k = 0; k < 3; ++k) {
+            boxes[i * 6 + k] = Math.min(boxes[i * 6 + k], other[j * 6 + k]);
+            boxes[i * 6 + 3 + k] = Math.max(boxes[i * 6 + 3 + k], other[j * 6 + 3 + k]);
+        }
+    }
+
+    /**
+     * grow a box so it contains another box
+     */
+    private static void growBox(double[] boxes, int i, double[] other, int j) {
+        for (int k = 0; k < 3; ++k) {
+            boxes[i * 6 + k] = Math.min(boxes[i * 6 + k], other[j * 6 + k]);
+            boxes[i * 6 + 3 + k] = Math.max(boxes[i * 6 + 3 + k], other[j * 6 + 3 + k]);
+        }
+    }
+
+    /**
+     * the surface area of a box, used by the surface area heuristic
+     */
+    private static double surfaceArea(double[] boxes, int i) {
+        double dx = boxes[i * 6 + 3] - boxes[i * 6];
+        double dy = boxes[i * 6 + 4] - boxes[i * 6 + 1];
+        double dz = boxes[i * 6 + 5] - boxes[i * 6 + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * find the bin of a centroid coordinate
+     *
+     * @param c     the coordinate
+     * @param min   the minimal coordinate
+     * @param scale amount of bins per length unit
+     * @return the bin index
+     */
+    private static int bin(double c, double min, double scale) {
+        int b = (int) ((c - min) * scale);
+        return b >= BINS ? BINS - 1 : b;
+    }
+
+    /**
+     * swap two faces with their boxes
+     */
+    private void swap(float[] boxes, int i, int j) {
+        int face = order[i];
+        order[i] = order[j];
+        order[j] = face;
+        for (int k = 0; k < 6; ++k) {
+            float b = boxes[i * 6 + k];
+            boxes[i * 6 + k] = boxes[j * 6 + k];
+            boxes[j * 6 + k] = b;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package geometries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary cache of meshes. <br/>
+ * A mesh is saved with its vertices, its faces and its hierarchy, so loading it again needs
+ * neither parsing nor building the hierarchy: the file is mapped into memory and the mesh
+ * reads its data straight from the mapping, outside of the heap.
+ * <p>
+ * The file is little endian. A header of {@value #HEADER_SIZE} bytes holds the magic number,
+ * the version of the format, the amounts of vertices, faces and nodes and a CRC32 of the data.
+ * The data follows: the vertices (3 floats per vertex), the faces (3 ints per face), the bounds
+ * of the nodes (6 floats per node), the links of the nodes (2 ints per node) and the order of
+ * the faces in the leaves (an int per face). Every one of these parts is mapped apart, so a part
+ * is at most 2GB but the file may be larger.
+ */
+public final class MeshCache {
+    /**
+     * "MESH" - the first bytes of every cache file
+     */
+    private static final int MAGIC = 0x4853454D;
+    /**
+     * the version of the format, a file of another version must be built again
+     */
+    public static final int VERSION = 1;
+    /**
+     * the size of the header in bytes
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * no instances - only static methods
+     */
+    private MeshCache() {
+    }
+
+    /**
+     * save a mesh into a cache file, the file is replaced if it exists. The file is written
+     * aside and then moved into place, so meshes that are mapped from the old file keep working.
+     * The file that was written aside is deleted if the saving fails
+     *
+     * @param mesh the mesh
+     * @param path the path of the file
+     * @throws IOException              if the file can't be written
+     * @throws IllegalArgumentException if a part of the mesh is too big to be mapped (2GB)
+     */
+    public static void save(Mesh mesh, Path path) throws IOException {
+        FloatBuffer vertices = mesh.getVertices();
+        IntBuffer indices = mesh.getIndices();
+        MeshBVH bvh = mesh.getBVH();
+        int vertexCount = vertices.limit() / 3, faceCount = indices.limit() / 3, nodeCount = bvh.nodeCount;
+        // a file that load can't map is not written
+        for (long size : new long[]{(long) vertices.limit() * Float.BYTES, (long) indices.limit() * Integer.BYTES,
+                (long) bvh.bounds.limit() * Float.BYTES, (long) bvh.nodes.limit() * Integer.BYTES,
+                (long) bvh.faces.limit() * Integer.BYTES})
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("The mesh is too big for a mesh cache file: " + path);
+
+        CRC32 crc = new CRC32();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.position(HEADER_SIZE);
+                writeFloats(channel, crc, vertices.duplicate());
+                writeInts(channel, crc, indices.duplicate());
+                writeFloats(channel, crc, bvh.bounds.duplicate());
+                writeInts(channel, crc, bvh.nodes.duplicate());
+                writeInts(channel, crc, bvh.faces.duplicate());
+
+                // the header is written last, with the checksum of the data
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(vertexCount).putInt(faceCount).putInt(nodeCount)
+                        .putInt(0 /* reserved */).putLong(crc.getValue()).flip();
+                channel.position(0);
+                while (header.hasRemaining())
+                    channel.write(header);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * load a mesh from a cache file by mapping the file into memory
+     *
+     * @param path the path of the file
+     * @return the mesh, it has the default material
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is not a cache file of this version or it is corrupted
+     */
+    public static Mesh load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE)
+                throw new IllegalArgumentException("Not a mesh cache file: " + path);
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC)
+                throw new IllegalArgumentException("Not a mesh cache file: " + path);
+            if (header.getInt(4) != VERSION)
+                throw new IllegalArgumentException("Mesh cache version " + header.getInt(4) + " is not supported: " + path);
+            long vertexCount = header.getInt(8), faceCount = header.getInt(12), nodeCount = header.getInt(16);
+            // the sizes of the vertices, the faces, the bounds and the links of the nodes and the order of the faces
+            long[] sizes = {vertexCount * 3 * Float.BYTES, faceCount * 3 * Integer.BYTES, nodeCount * 6 * Float.BYTES,
+                    nodeCount * 2 * Integer.BYTES, faceCount * Integer.BYTES};
+            long fileSize = HEADER_SIZE;
+            for (long size : sizes)
+                fileSize += size;
+            if (vertexCount < 0 || faceCount < 0 || nodeCount < 0 || fileSize != channel.size())
+                throw new IllegalArgumentException("Mesh cache file is corrupted: " + path);
+
+            // every part is mapped apart, so the file may be larger than a single mapping (2GB),
+            // the mappings stay valid after the channel is closed
+            ByteBuffer[] parts = new ByteBuffer[sizes.length];
+            CRC32 crc = new CRC32();
+            long offset = HEADER_SIZE;
+            for (int k = 0; k < sizes.length; offset += sizes[k++]) {
+                if (sizes[k] > Integer.MAX_VALUE)
+                    throw new IllegalArgumentException("Mesh cache file is corrupted: " + path);
+                parts[k] = channel.map(FileChannel.MapMode.READ_ONLY, offset, sizes[k]).order(ByteOrder.LITTLE_ENDIAN);
+                crc.update(parts[k].duplicate());
+            }
+            if (crc.getValue() != header.getLong(24))
+                throw new IllegalArgumentException("Mesh cache file is corrupted: " + path);
+
+            return new Mesh(parts[0].asFloatBuffer(), parts[1].asIntBuffer(),
+                    new MeshBVH(parts[2].asFloatBuffer(), parts[3].asIntBuffer(), parts[4].asIntBuffer()));
+        }
+    }
+
+    /**
+     * write floats to the channel in blocks and add them to the checksum
+     */
+    private static void writeFloats(FileChannel channel, CRC32 crc, FloatBuffer data) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        data.position(0);
+        while (data.hasRemaining()) {
+            int n = Math.min(data.remaining(), block.capacity() / Float.BYTES);
+            block.clear();
+            FloatBuffer part = data.slice(data.position(), n);
+            block.asFloatBuffer().put(part);
+            data.position(data.position() + n);
+            block.limit(n * Float.BYTES);
+            write(channel, crc, block);
+        }
+    }
+
+    /**
+     * write ints to the channel in blocks and add them to the checksum
+     */
+    private static void writeInts(FileChannel channel, CRC32 crc, IntBuffer data) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        data.position(0);
+        while (data.hasRemaining()) {
+            int n = Math.min(data.remaining(), block.capacity() / Integer.BYTES);
+            block.clear();
+            IntBuffer part = data.slice(data.position(), n);
+            block.asIntBuffer().put(part);
+            data.position(data.position() + n);
+            block.limit(n * Integer.BYTES);
+            write(channel, crc, block);
+        }
+    }
+
+    /**
+     * write a block to the channel and add it to the checksum
+     */
+    private static void write(FileChannel channel, CRC32 crc, ByteBuffer block) throws IOException {
+        crc.update(block.duplicate());
+        while (block.hasRemaining())
+            channel.write(block);
+    }
+}
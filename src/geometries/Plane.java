@@ -2,6 +2,7 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
+import primitives.Vec3;
 import primitives.Vector;
 
 import java.util.List;
@@ -82,35 +83,58 @@ public class Plane extends Geometry {
         return normal;
     }
 
+    /**
+     * a plane is infinite
+     *
+     * @return null - the plane is unbounded
+     */
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return null;
+    }
+
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        double t = findDistance(ray);
+        return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
 
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = findDistance(ray);
+        return t < maxDistance ? new GeoPoint(this, ray.getPoint(t), t) : null;
+    }
+
+    /**
+     * find the distance from the head of the ray to the plane along the ray
+     *
+     * @param ray the ray
+     * @return the distance, positive infinity if the ray doesn't cross the plane
+     */
+    double findDistance(Ray ray) {
+        Point p0 = ray.getP0();
         // q0=p0 = starting point of the ray
-        if (q0.equals(ray.getP0()))
-            return null;
+        if (q0.equals(p0))
+            return Double.POSITIVE_INFINITY;
 
         // Calculating the numerator.
-        Vector p0_q0 = q0.subtract(ray.getP0());
-        double numerator = alignZero(normal.dotProduct(p0_q0));
+        double numerator = alignZero(new Vec3().setSubtract(q0, p0).dotProduct(normal));
 
         // In case that the plane contains the ray or is parallel to it.
         if (isZero(numerator))
-            return null;
+            return Double.POSITIVE_INFINITY;
 
         // Calculating the denominator
-        double denominator = alignZero(normal.dotProduct(ray.getDir()));
+        double denominator = alignZero(Vec3.dotProduct(normal, ray.getDir()));
 
         // In case that the plane is parallel to it.
         if (isZero(denominator))
-            return null;
+            return Double.POSITIVE_INFINITY;
 
         double t = alignZero(numerator / denominator);
 
         // The ray is pointing away from the plane.
-        if (t <= 0)
-            return null;
-
-        return List.of(new GeoPoint(this, ray.getPoint(t)));
+        return t <= 0 ? Double.POSITIVE_INFINITY : t;
     }
 
 
@@ -92,14 +92,37 @@ public class Polygon extends Geometry {
         return plane.getNormal();
     }
 
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return new BoundingBox(vertices.toArray(new Point[0]));
+    }
+
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        List<GeoPoint> planeIntersections = plane.findGeoIntersections(ray);
+        double t = plane.findDistance(ray);
+        if (t == Double.POSITIVE_INFINITY || !isInside(ray)) {
+            return null;
+        }
+        return List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
 
-        if (planeIntersections == null) {
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = plane.findDistance(ray);
+        if (t >= maxDistance || !isInside(ray)) {
             return null;
         }
+        return new GeoPoint(this, ray.getPoint(t), t);
+    }
 
+    /**
+     * checks whether the ray passes inside the polygon, <br/>
+     * the ray is already known to cross the plane of the polygon
+     *
+     * @param ray the ray
+     * @return true if the ray crosses the polygon
+     */
+    protected boolean isInside(Ray ray) {
         Point P0 = ray.getP0();
         Vector v = ray.getDir();
 
@@ -112,7 +135,7 @@ public class Polygon extends Geometry {
         double sign = alignZero(v.dotProduct(v1.crossProduct(v2)));
 
         if (isZero(sign)) {
-            return null;
+            return false;
         }
 
         boolean positive = sign > 0;
@@ -124,15 +147,13 @@ public class Polygon extends Geometry {
 
             sign = alignZero(v.dotProduct(v1.crossProduct(v2)));
             if (isZero(sign)) {
-                return null;
+                return false;
             }
 
             if (positive != (sign > 0)) {
-                return null;
+                return false;
             }
         }
-        Point point = planeIntersections.get(0).point;
-
-        return List.of(new GeoPoint(this, point));
+        return true;
     }
 }
@@ -0,0 +1,173 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+
+/**
+ * The triangles and the spheres of a small group of geometries (a leaf of a hierarchy) kept as
+ * a structure of arrays, so the {@link IntersectionKernel} tests a ray against all of them
+ * together. The arrays are padded to a multiple of the width of the kernel by primitives that
+ * are never hit. The other geometries of the group are tested one by one.
+ */
+final class PrimitiveBatch {
+    /**
+     * the amount of triangles in the arrays, with the padding
+     */
+    final int triangleCount;
+    /**
+     * the first vertices and the two edges of the triangles
+     */
+    final double[] ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z;
+    /**
+     * the amount of spheres in the arrays, with the padding
+     */
+    final int sphereCount;
+    /**
+     * the index of the distance of the first sphere, after the distances of the triangles
+     */
+    final int sphereOffset;
+    /**
+     * the centers of the spheres and the squares of their radii
+     */
+    final double[] cx, cy, cz, rr;
+    /**
+     * the index of the distance of every geometry of the group, -1 for a geometry that is not in the arrays
+     */
+    private final int[] slots;
+
+    /**
+     * Constructor - puts the triangles and the spheres of the group into the arrays
+     *
+     * @param items the geometries of the group
+     * @param width the width of the kernel
+     */
+    PrimitiveBatch(Intersectable[] items, int width) {
+        slots = new int[items.length];
+        int triangles = 0, spheres = 0;
+        for (Intersectable item : items) {
+            if (item instanceof Triangle)
+                ++triangles;
+            else if (item instanceof Sphere)
+                ++spheres;
+        }
+        triangleCount = pad(triangles, width);
+        sphereCount = pad(spheres, width);
+        sphereOffset = triangleCount;
+        ax = new double[triangleCount];
+        ay = new double[triangleCount];
+        az = new double[triangleCount];
+        e1x = new double[triangleCount];
+        e1y = new double[triangleCount];
+        e1z = new double[triangleCount];
+        e2x = new double[triangleCount];
+        e2y = new double[triangleCount];
+        e2z = new double[triangleCount];
+        cx = new double[sphereCount];
+        cy = new double[sphereCount];
+        cz = new double[sphereCount];
+        rr = new double[sphereCount];
+        // the padding - degenerate triangles (parallel to every ray) and spheres of a negative
+        // square radius without a center
+        Arrays.fill(cx, Double.NaN);
+        Arrays.fill(cy, Double.NaN);
+        Arrays.fill(cz, Double.NaN);
+        Arrays.fill(rr, Double.NEGATIVE_INFINITY);
+
+        triangles = spheres = 0;
+        for (int k = 0; k < items.length; ++k) {
+            if (items[k] instanceof Triangle triangle) {
+                ax[triangles] = triangle.ax;
+                ay[triangles] = triangle.ay;
+                az[triangles] = triangle.az;
+                e1x[triangles] = triangle.e1x;
+                e1y[triangles] = triangle.e1y;
+                e1z[triangles] = triangle.e1z;
+                e2x[triangles] = triangle.e2x;
+                e2y[triangles] = triangle.e2y;
+                e2z[triangles] = triangle.e2z;
+                slots[k] = triangles++;
+            } else if (items[k] instanceof Sphere sphere) {
+                Point center = sphere.getCenter();
+                cx[spheres] = center.getX();
+                cy[spheres] = center.getY();
+                cz[spheres] = center.getZ();
+                rr[spheres] = sphere.radius * sphere.radius;
+                slots[k] = sphereOffset + spheres++;
+            } else
+                slots[k] = -1;
+        }
+    }
+
+    /**
+     * whether it pays to keep a group in a batch - it has at least two triangles or spheres
+     *
+     * @param items the geometries of the group
+     * @return true if the group should have a batch
+     */
+    static boolean worthIt(Intersectable[] items) {
+        int count = 0;
+        for (Intersectable item : items)
+            if (item instanceof Triangle || item instanceof Sphere)
+                ++count;
+        return count >= 2;
+    }
+
+    /**
+     * the amount of distances of the batch
+     *
+     * @return the length of the buffer of the distances
+     */
+    int length() {
+        return triangleCount + sphereCount;
+    }
+
+    /**
+     * find the closest intersection of a ray with the geometries of the group which is closer
+     * than a given distance - the same intersection as testing the geometries one by one
+     *
+     * @param items       the geometries of the group, in the order of the construction
+     * @param kernel      the kernel of the intersections
+     * @param ray         the ray
+     * @param maxDistance the intersections at this distance from the head of the ray or farther are ignored
+     * @param distances   buffer for the distances, of {@link #length()} at least
+     * @return the closest intersection point, null if there is none
+     */
+    GeoPoint findClosest(Intersectable[] items, IntersectionKernel kernel, Ray ray, double maxDistance,
+                         double[] distances) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        if (triangleCount > 0)
+            kernel.intersectTriangles(ox, oy, oz, dx, dy, dz, this, distances);
+        if (sphereCount > 0)
+            kernel.intersectSpheres(ox, oy, oz, dx, dy, dz, this, distances);
+
+        GeoPoint closest = null;
+        for (int k = 0; k < items.length; ++k) {
+            GeoPoint itemPoint;
+            double t = slots[k] < 0 ? Double.NaN : distances[slots[k]];
+            // NaN - a geometry that is not in the arrays, or a ray that starts at the center of a sphere
+            if (Double.isNaN(t))
+                itemPoint = items[k].findClosestGeoIntersectionHelper(ray, maxDistance);
+            else
+                itemPoint = t < maxDistance ? new GeoPoint((Geometry) items[k], ray.getPoint(t), t) : null;
+            if (itemPoint != null) {
+                closest = itemPoint;
+                maxDistance = itemPoint.getDistance(ray);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * round an amount up to a multiple of the width
+     */
+    private static int pad(int count, int width) {
+        return (count + width - 1) / width * width;
+    }
+}
@@ -0,0 +1,28 @@
+package geometries;
+
+/**
+ * The intersection kernel of plain Java - one primitive at a time by the calculations of
+ * {@link Triangle} and {@link Sphere}
+ */
+final class ScalarIntersectionKernel implements IntersectionKernel {
+    @Override
+    public int width() {
+        return 1;
+    }
+
+    @Override
+    public void intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                                   PrimitiveBatch batch, double[] distances) {
+        for (int i = 0; i < batch.triangleCount; ++i)
+            distances[i] = Triangle.intersect(ox, oy, oz, dx, dy, dz, batch.ax[i], batch.ay[i], batch.az[i],
+                    batch.e1x[i], batch.e1y[i], batch.e1z[i], batch.e2x[i], batch.e2y[i], batch.e2z[i], null);
+    }
+
+    @Override
+    public void intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                                 PrimitiveBatch batch, double[] distances) {
+        for (int i = 0; i < batch.sphereCount; ++i)
+            distances[batch.sphereOffset + i] = Sphere.intersect(ox, oy, oz, dx, dy, dz,
+                    batch.cx[i], batch.cy[i], batch.cz[i], batch.rr[i]);
+    }
+}
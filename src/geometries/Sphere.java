@@ -2,11 +2,14 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
+import primitives.RayPacket;
+import primitives.Vec3;
 import primitives.Vector;
 
 import java.util.List;
 
 import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
 
 /**
  * sphere class is a geometric shape represented by a point and a radius
@@ -39,10 +42,91 @@ public class Sphere extends RadialGeometry {
         return center;
     }
 
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
     @Override
     public Vector getNormal(Point p1) {
+        return new Vec3().setSubtract(p1, center).normalize().toVector();
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        // p0 = center , the intersection is at distance of the radius
+        if (ray.getP0().equals(center))
+            return radius < maxDistance ? new GeoPoint(this, new Vec3().set(center).addScaled(ray.getDir(), radius).toPoint(), radius) : null;
+
+        Vec3 u = new Vec3().setSubtract(center, ray.getP0());
+        double tm = alignZero(u.dotProduct(ray.getDir()));
+        double d_squared = alignZero((u.lengthSquared() - tm * tm));
+        double rr = radius * radius;
 
-        return p1.subtract(center).normalize();
+        // there are no intersections
+        if (d_squared >= rr)
+            return null;
+
+        double th = alignZero(Math.sqrt(rr - d_squared));
+        // t2 <= t1, so the closer one is taken if it is in front of the ray
+        double t = alignZero(tm - th);
+        if (t <= 0)
+            t = alignZero(tm + th);
+        return t > 0 && t < maxDistance ? new GeoPoint(this, ray.getPoint(t), t) : null;
+    }
+
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet, int mask, double[] maxDistances,
+                                                     GeoPoint[] hits) {
+        double cx = center.getX(), cy = center.getY(), cz = center.getZ();
+        double rr = radius * radius;
+        for (int m = mask; m != 0; m &= m - 1) {
+            int i = Integer.numberOfTrailingZeros(m);
+            double t = intersect(packet.ox[i], packet.oy[i], packet.oz[i], packet.dx[i], packet.dy[i], packet.dz[i],
+                    cx, cy, cz, rr);
+            // p0 = center - the single ray calculation
+            if (Double.isNaN(t))
+                super.findClosestGeoIntersectionsHelper(packet, 1 << i, maxDistances, hits);
+            else if (t < maxDistances[i]) {
+                Ray ray = packet.getRay(i);
+                hits[i] = new GeoPoint(this, ray.getPoint(t), t);
+                maxDistances[i] = hits[i].getDistance(ray);
+            }
+        }
+    }
+
+    /**
+     * the distance from the head of a ray to the closest intersection in front of it, by the
+     * numbers of the ray and of the sphere. It is the calculation of
+     * {@link #findClosestGeoIntersectionHelper(Ray, double)}
+     *
+     * @param ox x of the head of the ray
+     * @param oy y of the head of the ray
+     * @param oz z of the head of the ray
+     * @param dx x of the direction of the ray
+     * @param dy y of the direction of the ray
+     * @param dz z of the direction of the ray
+     * @param cx x of the center
+     * @param cy y of the center
+     * @param cz z of the center
+     * @param rr the square of the radius
+     * @return the distance, positive infinity if there is no intersection, NaN if the head of the ray is the center
+     */
+    static double intersect(double ox, double oy, double oz, double dx, double dy, double dz,
+                            double cx, double cy, double cz, double rr) {
+        double ux = cx - ox, uy = cy - oy, uz = cz - oz;
+        if (isZero(ux) && isZero(uy) && isZero(uz))
+            return Double.NaN;
+        double tm = alignZero(ux * dx + uy * dy + uz * dz);
+        double d_squared = alignZero(ux * ux + uy * uy + uz * uz - tm * tm);
+        if (d_squared >= rr)
+            return Double.POSITIVE_INFINITY;
+        double th = alignZero(Math.sqrt(rr - d_squared));
+        double t = alignZero(tm - th);
+        if (t <= 0)
+            t = alignZero(tm + th);
+        return t > 0 ? t : Double.POSITIVE_INFINITY;
     }
 
     @Override
@@ -50,10 +134,10 @@ public class Sphere extends RadialGeometry {
 
         // p0 = center , returns 1 point
         if (ray.getP0().equals(center))
-            return List.of(new GeoPoint(this, center.add(ray.getDir().scale(radius))));
+            return List.of(new GeoPoint(this, new Vec3().set(center).addScaled(ray.getDir(), radius).toPoint(), radius));
 
-        Vector u = center.subtract(ray.getP0());
-        double tm = alignZero(ray.getDir().dotProduct(u));
+        Vec3 u = new Vec3().setSubtract(center, ray.getP0());
+        double tm = alignZero(u.dotProduct(ray.getDir()));
 
         double d_squared = alignZero((u.lengthSquared() - tm * tm));
         double rr = radius * radius;
@@ -71,17 +155,17 @@ public class Sphere extends RadialGeometry {
             //  Point p1 = ray.getP0().add(ray.getDir().scale(t1));
             //Point p2 = ray.getP0().add(ray.getDir().scale(t2));
 
-            return List.of(new GeoPoint(this, ray.getPoint(t1)), new GeoPoint(this, ray.getPoint(t2)));
+            return List.of(new GeoPoint(this, ray.getPoint(t1), t1), new GeoPoint(this, ray.getPoint(t2), t2));
         }
 
         if (t1 > 0) {
             //  Point p1 = ray.getP0().add(ray.getDir().scale(t1));
-            return List.of(new GeoPoint(this, ray.getPoint(t1)));
+            return List.of(new GeoPoint(this, ray.getPoint(t1), t1));
         }
 
         if (t2 > 0) {
             // Point p2 = ray.getP0().add(ray.getDir().scale(t2));
-            return List.of(new GeoPoint(this, ray.getPoint(t2)));
+            return List.of(new GeoPoint(this, ray.getPoint(t2), t2));
         }
         return null;
     }
@@ -2,16 +2,25 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
+import primitives.RayPacket;
 import primitives.Vector;
 
 import java.util.List;
 
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 /**
  * Triangle class is a polygon represented by three points
  */
 public class Triangle extends Polygon {
+    /**
+     * the first vertex and the two edges that leave it (to the second and to the third vertex),
+     * kept as numbers for the Moller-Trumbore intersection
+     */
+    final double ax, ay, az;
+    final double e1x, e1y, e1z;
+    final double e2x, e2y, e2z;
 
     /**
      * Constructor to initialize Triangle based object with the values of three different points
@@ -23,37 +32,117 @@ public class Triangle extends Polygon {
     public Triangle(Point p1, Point p2, Point p3) {
 
         super(p1, p2, p3);
+        ax = p1.getX();
+        ay = p1.getY();
+        az = p1.getZ();
+        e1x = p2.getX() - ax;
+        e1y = p2.getY() - ay;
+        e1z = p2.getZ() - az;
+        e2x = p3.getX() - ax;
+        e2y = p3.getY() - ay;
+        e2z = p3.getZ() - az;
     }
 
-
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        List<GeoPoint> planeIntersections = plane.findGeoIntersections(ray);
-        if (planeIntersections == null)
-            return null;
+        double t = findDistance(ray, null);
+        return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = findDistance(ray, null);
+        return t < maxDistance ? new GeoPoint(this, ray.getPoint(t), t) : null;
+    }
+
+    @Override
+    protected void findClosestGeoIntersectionsHelper(RayPacket packet, int mask, double[] maxDistances,
+                                                     GeoPoint[] hits) {
+        for (int m = mask; m != 0; m &= m - 1) {
+            int i = Integer.numberOfTrailingZeros(m);
+            double t = intersect(packet.ox[i], packet.oy[i], packet.oz[i], packet.dx[i], packet.dy[i], packet.dz[i],
+                    ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z, null);
+            if (t < maxDistances[i]) {
+                Ray ray = packet.getRay(i);
+                hits[i] = new GeoPoint(this, ray.getPoint(t), t);
+                maxDistances[i] = hits[i].getDistance(ray);
+            }
+        }
+    }
 
+    /**
+     * find the distance from the head of the ray to the triangle along the ray
+     *
+     * @param ray         the ray
+     * @param barycentric buffer for the barycentric coordinates of the hit (the weights of the
+     *                    second and the third vertex), may be null
+     * @return the distance, positive infinity if the ray doesn't cross the triangle
+     */
+    double findDistance(Ray ray, double[] barycentric) {
         Point p0 = ray.getP0();
-        Vector v = ray.getDir();
-
-        Vector v1 = vertices.get(0).subtract(p0);
-        Vector v2 = vertices.get(1).subtract(p0);
-        Vector v3 = vertices.get(2).subtract(p0);
-
-        double s1 = v.dotProduct(v1.crossProduct(v2));
-        if (isZero(s1))
-            return null;
-        double s2 = v.dotProduct(v2.crossProduct(v3));
-        if (isZero(s2))
-            return null;
-        double s3 = v.dotProduct(v3.crossProduct(v1));
-        if (isZero(s3))
-            return null;
-
-        if ((s1 > 0 && s2 > 0 && s3 > 0) || (s1 < 0 && s2 < 0 && s3 < 0)) {
-            Point point = planeIntersections.get(0).point;
-            return List.of(new GeoPoint(this, point));
+        Vector dir = ray.getDir();
+        return intersect(p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ(),
+                ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z, barycentric);
+    }
+
+    /**
+     * Moller-Trumbore ray-triangle intersection. The triangle is given by a vertex and the
+     * two edges that leave it, so nothing is allocated. A ray that crosses an edge or a vertex
+     * of the triangle, or is parallel to it, doesn't intersect it.
+     *
+     * @param ox          x of the head of the ray
+     * @param oy          y of the head of the ray
+     * @param oz          z of the head of the ray
+     * @param dx          x of the direction of the ray
+     * @param dy          y of the direction of the ray
+     * @param dz          z of the direction of the ray
+     * @param ax          x of the first vertex
+     * @param ay          y of the first vertex
+     * @param az          z of the first vertex
+     * @param e1x         x of the edge from the first to the second vertex
+     * @param e1y         y of the edge from the first to the second vertex
+     * @param e1z         z of the edge from the first to the second vertex
+     * @param e2x         x of the edge from the first to the third vertex
+     * @param e2y         y of the edge from the first to the third vertex
+     * @param e2z         z of the edge from the first to the third vertex
+     * @param barycentric buffer for the barycentric coordinates (u, v) of the hit, may be null
+     * @return the distance along the ray, positive infinity if there is no intersection
+     */
+    static double intersect(double ox, double oy, double oz, double dx, double dy, double dz,
+                            double ax, double ay, double az,
+                            double e1x, double e1y, double e1z, double e2x, double e2y, double e2z,
+                            double[] barycentric) {
+        // p = dir x e2
+        double px = dy * e2z - dz * e2y;
+        double py = dz * e2x - dx * e2z;
+        double pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        // the ray is parallel to the triangle
+        if (isZero(det))
+            return Double.POSITIVE_INFINITY;
+        double invDet = 1 / det;
+
+        // s = p0 - a
+        double sx = ox - ax, sy = oy - ay, sz = oz - az;
+        double u = (sx * px + sy * py + sz * pz) * invDet;
+        if (u <= 0 || u >= 1)
+            return Double.POSITIVE_INFINITY;
+
+        // q = s x e1
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (v <= 0 || u + v >= 1)
+            return Double.POSITIVE_INFINITY;
+
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * invDet);
+        if (t <= 0)
+            return Double.POSITIVE_INFINITY;
+        if (barycentric != null) {
+            barycentric[0] = u;
+            barycentric[1] = v;
         }
-        return null;
+        return t;
     }
 }
-
@@ -70,6 +70,16 @@ public class Tube extends Geometry {
     }
     //endregion
 
+    /**
+     * an infinite tube has no bounding box
+     *
+     * @return null - the tube is unbounded
+     */
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return null;
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
         return null;
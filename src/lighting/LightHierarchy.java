@@ -0,0 +1,211 @@
+package lighting;
+
+import primitives.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bounding volume hierarchy of the spheres of influence of the lights of a scene. <br/>
+ * A point light or a spot light can't be seen farther than its radius of influence
+ * ({@link LightSource#getInfluenceRadius(double)}), so a shading point finds the lights that
+ * may light it by going down the boxes that contain it - about log(lights) steps instead of
+ * testing every light. The lights that reach everywhere (e.g. directional lights) are always
+ * found. The hierarchy is immutable after it was built.
+ */
+public final class LightHierarchy {
+    /**
+     * maximal amount of lights in a leaf of the tree
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+
+    /**
+     * the lights in the order of the scene
+     */
+    private final LightSource[] lights;
+    /**
+     * the indices of the lights that reach everywhere
+     */
+    private final int[] unbounded;
+    /**
+     * the indices of the bounded lights, every leaf has a range of them
+     */
+    private final int[] bounded;
+    /**
+     * the positions and the squared radii of the lights, by the index of the light
+     */
+    private final double[] x, y, z, radiusSquared;
+    /**
+     * the boxes of the nodes - min x, y, z and max x, y, z of every node
+     */
+    private double[] boxes;
+    /**
+     * a leaf has the first index of its range in bounded and a positive amount of lights,
+     * an inner node has the index of its left child (the right one follows it) and 0
+     */
+    private int[] first, count;
+    private int nodes = 0;
+
+    /**
+     * Constructor - builds the hierarchy
+     *
+     * @param lights    the lights of the scene
+     * @param threshold the smallest intensity that can be seen (in the units of a color component)
+     * @throws IllegalArgumentException if the threshold is not positive
+     */
+    public LightHierarchy(List<LightSource> lights, double threshold) {
+        if (threshold <= 0)
+            throw new IllegalArgumentException("The threshold of the lights must be positive");
+        this.lights = lights.toArray(new LightSource[0]);
+        int size = this.lights.length;
+        x = new double[size];
+        y = new double[size];
+        z = new double[size];
+        radiusSquared = new double[size];
+        List<Integer> far = new ArrayList<>(), near = new ArrayList<>();
+        for (int i = 0; i < size; ++i) {
+            double radius = this.lights[i].getInfluenceRadius(threshold);
+            if (this.lights[i] instanceof PointLight light && radius != Double.POSITIVE_INFINITY) {
+                Point position = light.getPosition();
+                x[i] = position.getX();
+                y[i] = position.getY();
+                z[i] = position.getZ();
+                radiusSquared[i] = radius * radius;
+                near.add(i);
+            } else
+                far.add(i);
+        }
+        unbounded = far.stream().mapToInt(Integer::intValue).toArray();
+
+        Integer[] order = near.toArray(new Integer[0]);
+        int capacity = Math.max(1, 2 * order.length);
+        boxes = new double[capacity * 6];
+        first = new int[capacity];
+        count = new int[capacity];
+        if (order.length > 0)
+            build(order, 0, order.length, addNode());
+        bounded = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * find the lights that may light a point - the lights that reach everywhere and the
+     * lights whose sphere of influence contains the point
+     *
+     * @param p the point
+     * @return the lights, in the order of the scene
+     */
+    public List<LightSource> findLights(Point p) {
+        double px = p.getX(), py = p.getY(), pz = p.getZ();
+        int[] found = new int[8];
+        int size = 0;
+        for (int i : unbounded) {
+            if (size == found.length)
+                found = Arrays.copyOf(found, size * 2);
+            found[size++] = i;
+        }
+        if (bounded.length > 0) {
+            int[] stack = new int[64];
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                int b = node * 6;
+                if (px < boxes[b] || py < boxes[b + 1] || pz < boxes[b + 2]
+                        || px > boxes[b + 3] || py > boxes[b + 4] || pz > boxes[b + 5])
+                    continue;
+                if (count[node] == 0) {
+                    if (top + 2 > stack.length)
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[top++] = first[node];
+                    stack[top++] = first[node] + 1;
+                    continue;
+                }
+                for (int k = first[node]; k < first[node] + count[node]; ++k) {
+                    int i = bounded[k];
+                    double dx = px - x[i], dy = py - y[i], dz = pz - z[i];
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared[i]) {
+                        if (size == found.length)
+                            found = Arrays.copyOf(found, size * 2);
+                        found[size++] = i;
+                    }
+                }
+            }
+        }
+        // the lights are summed in the order of the scene, as without the hierarchy
+        Arrays.sort(found, 0, size);
+        List<LightSource> result = new ArrayList<>(size);
+        for (int k = 0; k < size; ++k)
+            result.add(lights[found[k]]);
+        return result;
+    }
+
+    /**
+     * build a sub tree - the lights are split at the median of their positions along the
+     * widest axis of the positions
+     *
+     * @param order the indices of the bounded lights
+     * @param from  the first light of the sub tree
+     * @param to    the end of the lights of the sub tree
+     * @param node  the root of the sub tree
+     */
+    private void build(Integer[] order, int from, int to, int node) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        double cMinX = minX, cMinY = minY, cMinZ = minZ, cMaxX = maxX, cMaxY = maxY, cMaxZ = maxZ;
+        for (int k = from; k < to; ++k) {
+            int i = order[k];
+            double r = Math.sqrt(radiusSquared[i]);
+            minX = Math.min(minX, x[i] - r);
+            minY = Math.min(minY, y[i] - r);
+            minZ = Math.min(minZ, z[i] - r);
+            maxX = Math.max(maxX, x[i] + r);
+            maxY = Math.max(maxY, y[i] + r);
+            maxZ = Math.max(maxZ, z[i] + r);
+            cMinX = Math.min(cMinX, x[i]);
+            cMinY = Math.min(cMinY, y[i]);
+            cMinZ = Math.min(cMinZ, z[i]);
+            cMaxX = Math.max(cMaxX, x[i]);
+            cMaxY = Math.max(cMaxY, y[i]);
+            cMaxZ = Math.max(cMaxZ, z[i]);
+        }
+        int b = node * 6;
+        boxes[b] = minX;
+        boxes[b + 1] = minY;
+        boxes[b + 2] = minZ;
+        boxes[b + 3] = maxX;
+        boxes[b + 4] = maxY;
+        boxes[b + 5] = maxZ;
+
+        if (to - from <= MAX_LEAF_SIZE) {
+            first[node] = from;
+            count[node] = to - from;
+            return;
+        }
+        double ex = cMaxX - cMinX, ey = cMaxY - cMinY, ez = cMaxZ - cMinZ;
+        double[] axis = ex >= ey && ex >= ez ? x : ey >= ez ? y : z;
+        Arrays.sort(order, from, to, Comparator.comparingDouble(i -> axis[i]));
+        int mid = (from + to) >>> 1;
+        int left = addNode();
+        addNode();
+        first[node] = left;
+        count[node] = 0;
+        build(order, from, mid, left);
+        build(order, mid, to, left + 1);
+    }
+
+    /**
+     * add a node to the tree
+     *
+     * @return the index of the node
+     */
+    private int addNode() {
+        if (nodes == first.length) {
+            first = Arrays.copyOf(first, nodes * 2);
+            count = Arrays.copyOf(count, nodes * 2);
+            boxes = Arrays.copyOf(boxes, nodes * 12);
+        }
+        return nodes++;
+    }
+}
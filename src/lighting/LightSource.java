@@ -31,4 +31,15 @@ public interface LightSource {
      * @return distance
      */
     double getDistance(Point point);
+
+    /**
+     * get the radius of the influence of the light - farther than it from the light its
+     * intensity is below a threshold in every component, so it can't be seen
+     *
+     * @param threshold the smallest intensity that can be seen (in the units of a color component)
+     * @return the radius, positive infinity if the light can be seen everywhere
+     */
+    default double getInfluenceRadius(double threshold) {
+        return Double.POSITIVE_INFINITY;
+    }
 }
@@ -2,6 +2,7 @@ package lighting;
 
 import primitives.Color;
 import primitives.Point;
+import primitives.Vec3;
 import primitives.Vector;
 
 /**
@@ -73,14 +74,40 @@ public class PointLight extends Light implements LightSource {
      */
     @Override
     public Vector getL(Point p) {
-        Vector dir = p.subtract(position);
-        return dir.normalize();
+        return new Vec3().setSubtract(p, position).normalize().toVector();
     }
 
     @Override
     public double getDistance(Point point) {
         return this.position.distance(point);
     }
+
+    /**
+     * get the position of the light
+     *
+     * @return the position
+     */
+    public Point getPosition() {
+        return position;
+    }
+
+    /**
+     * the light is below the threshold where the attenuation kC + kL*d + kQ*d^2 is larger than
+     * its strongest component divided by the threshold, the radius is the root of that equation
+     */
+    @Override
+    public double getInfluenceRadius(double threshold) {
+        Color intensity = getIntensity();
+        double max = Math.max(intensity.getR(), Math.max(intensity.getG(), intensity.getB()));
+        if (threshold <= 0 || kC < 0 || kL < 0 || kQ < 0)
+            return Double.POSITIVE_INFINITY;
+        double limit = max / threshold;
+        if (kC >= limit)
+            return 0;
+        if (kQ > 0)
+            return (-kL + Math.sqrt(kL * kL + 4 * kQ * (limit - kC))) / (2 * kQ);
+        return kL > 0 ? (limit - kC) / kL : Double.POSITIVE_INFINITY;
+    }
     //endregion
     //region Setters
 
@@ -83,6 +83,33 @@ public class Color {
         return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
     }
 
+    /**
+     * getter of the red component
+     *
+     * @return red component
+     */
+    public double getR() {
+        return rgb.d1;
+    }
+
+    /**
+     * getter of the green component
+     *
+     * @return green component
+     */
+    public double getG() {
+        return rgb.d2;
+    }
+
+    /**
+     * getter of the blue component
+     *
+     * @return blue component
+     */
+    public double getB() {
+        return rgb.d3;
+    }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      *
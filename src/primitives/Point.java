@@ -83,8 +83,10 @@ public class Point {
      * @return Distance squared
      */
     public double distanceSquared(Point point) {
-        Double3 result = this.xyz.subtract(point.xyz);
-        return (result.d1 * result.d1) + (result.d2 * result.d2) + (result.d3 * result.d3);
+        double dx = xyz.d1 - point.xyz.d1;
+        double dy = xyz.d2 - point.xyz.d2;
+        double dz = xyz.d3 - point.xyz.d3;
+        return (dx * dx) + (dy * dy) + (dz * dz);
     }
 
     /**
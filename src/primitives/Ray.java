@@ -41,14 +41,9 @@ public class Ray {
      */
     public Ray(Point p, Vector dir, Vector n) {
         this.dir = dir.normalize();
-        double nv = n.dotProduct(this.dir);
-
-        Vector delta = n.scale(DELTA);
-
-        if (nv < 0) {
-            delta = delta.scale(-1);
-        }
-        this.p0 = p.add(delta);
+        // move the head of the ray by DELTA along the normal, to the side of the direction
+        double delta = n.dotProduct(this.dir) < 0 ? -DELTA : DELTA;
+        this.p0 = new Point(p.xyz.d1 + n.xyz.d1 * delta, p.xyz.d2 + n.xyz.d2 * delta, p.xyz.d3 + n.xyz.d3 * delta);
     }
 
 
@@ -78,13 +73,14 @@ public class Ray {
      * @return point on the ray
      */
     public Point getPoint(double t) {
-        return p0.add(dir.scale(t));
+        return new Point(p0.xyz.d1 + dir.xyz.d1 * t, p0.xyz.d2 + dir.xyz.d2 * t, p0.xyz.d3 + dir.xyz.d3 * t);
     }
 
     /**
      * find the closest point to the starting point of the ray in list of GeoPoints
      *
-     * @param geoPoints list of GeoPoints
+     * @param geoPoints list of GeoPoints, the intersections of this ray (their distances are along the ray
+     *                  that produced them)
      * @return the closest GeoPoint
      */
     public GeoPoint findClosestGeoPoint(List<GeoPoint> geoPoints) {
@@ -96,7 +92,7 @@ public class Ray {
         double minDistance = Double.MAX_VALUE;
 
         for (var geoPoint : geoPoints) {
-            double temp = geoPoint.point.distance(p0);
+            double temp = geoPoint.getDistance(this);
             if (minDistance > temp) {
                 closesGeoPoint = geoPoint;
                 minDistance = temp;
@@ -0,0 +1,146 @@
+package primitives;
+
+import java.util.List;
+
+/**
+ * A packet of coherent rays (e.g. the primary rays of neighbouring pixels) that are traced
+ * together. <br/>
+ * The rays are kept as a structure of arrays - the heads, the directions and the inverse
+ * directions of all the rays are in separate arrays of numbers - so a box or a primitive is
+ * fetched once and tested against all the rays of the packet in one tight loop.
+ * The rays that are still traced are given by a bit mask, bit i is the i-th ray.
+ */
+public final class RayPacket {
+    /**
+     * the largest amount of rays in a packet, the bits of the mask
+     */
+    public static final int MAX_SIZE = 32;
+
+    /**
+     * amount of rays in the packet
+     */
+    public final int size;
+    /**
+     * the heads of the rays
+     */
+    public final double[] ox, oy, oz;
+    /**
+     * the (normalized) directions of the rays
+     */
+    public final double[] dx, dy, dz;
+    /**
+     * the inverse directions of the rays, for the slab tests of the boxes
+     */
+    public final double[] invDx, invDy, invDz;
+    /**
+     * the bounds of the heads of all the rays, for the shared culling of the boxes. They are
+     * valid only if the packet is coherent
+     */
+    public final double minOx, minOy, minOz, maxOx, maxOy, maxOz;
+    /**
+     * the bounds of the inverse directions of all the rays, for the shared culling of the boxes.
+     * They are valid only if the packet is coherent
+     */
+    public final double minInvX, minInvY, minInvZ, maxInvX, maxInvY, maxInvZ;
+    /**
+     * whether the directions of all the rays have the same signs on every axis, only then
+     * the bounds of the packet can cull a box for all its rays together
+     */
+    public final boolean coherent;
+    private final Ray[] rays;
+
+    /**
+     * Constructor of a packet
+     *
+     * @param rays the rays
+     * @throws IllegalArgumentException if there are no rays or more than {@link #MAX_SIZE}
+     */
+    public RayPacket(List<Ray> rays) {
+        size = rays.size();
+        if (size == 0 || size > MAX_SIZE)
+            throw new IllegalArgumentException("A packet must have 1 to " + MAX_SIZE + " rays");
+        this.rays = rays.toArray(new Ray[0]);
+        ox = new double[size];
+        oy = new double[size];
+        oz = new double[size];
+        dx = new double[size];
+        dy = new double[size];
+        dz = new double[size];
+        invDx = new double[size];
+        invDy = new double[size];
+        invDz = new double[size];
+        for (int i = 0; i < size; ++i) {
+            Point p0 = this.rays[i].getP0();
+            Vector dir = this.rays[i].getDir();
+            ox[i] = p0.getX();
+            oy[i] = p0.getY();
+            oz[i] = p0.getZ();
+            dx[i] = dir.getX();
+            dy[i] = dir.getY();
+            dz[i] = dir.getZ();
+            invDx[i] = 1 / dx[i];
+            invDy[i] = 1 / dy[i];
+            invDz[i] = 1 / dz[i];
+        }
+        minOx = min(ox);
+        minOy = min(oy);
+        minOz = min(oz);
+        maxOx = max(ox);
+        maxOy = max(oy);
+        maxOz = max(oz);
+        minInvX = min(invDx);
+        minInvY = min(invDy);
+        minInvZ = min(invDz);
+        maxInvX = max(invDx);
+        maxInvY = max(invDy);
+        maxInvZ = max(invDz);
+        coherent = sameSign(minInvX, maxInvX) && sameSign(minInvY, maxInvY) && sameSign(minInvZ, maxInvZ);
+    }
+
+    /**
+     * whether two inverse coordinates have the same sign and are finite (the direction is not
+     * parallel to the axis)
+     */
+    private static boolean sameSign(double min, double max) {
+        return Double.isFinite(min) && Double.isFinite(max) && (min > 0 || max < 0);
+    }
+
+    /**
+     * the minimum of the values
+     */
+    private static double min(double[] values) {
+        double min = values[0];
+        for (double value : values)
+            min = Math.min(min, value);
+        return min;
+    }
+
+    /**
+     * the maximum of the values
+     */
+    private static double max(double[] values) {
+        double max = values[0];
+        for (double value : values)
+            max = Math.max(max, value);
+        return max;
+    }
+
+    /**
+     * get a ray of the packet
+     *
+     * @param i the index of the ray
+     * @return the ray
+     */
+    public Ray getRay(int i) {
+        return rays[i];
+    }
+
+    /**
+     * the mask of all the rays of the packet
+     *
+     * @return a mask with a bit for every ray
+     */
+    public int fullMask() {
+        return size == MAX_SIZE ? -1 : (1 << size) - 1;
+    }
+}
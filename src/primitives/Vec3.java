@@ -0,0 +1,236 @@
+package primitives;
+
+/**
+ * Mutable triad of coordinates for the hot paths of the ray tracer. <br/>
+ * Unlike {@link Point} and {@link Vector}, every operation changes the object itself and
+ * returns it, so a chain of operations doesn't create intermediate objects.
+ * A Vec3 is scratch space - it is not shared between threads, and it is turned into
+ * a Point or a Vector only when the result has to be kept.
+ */
+public final class Vec3 {
+    /**
+     * the coordinates
+     */
+    public double x, y, z;
+
+    /**
+     * Constructor of the zero triad
+     */
+    public Vec3() {
+    }
+
+    /**
+     * Constructor to initialize the triad with its coordinates
+     *
+     * @param x first coordinate
+     * @param y second coordinate
+     * @param z third coordinate
+     */
+    public Vec3(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * set the coordinates
+     *
+     * @param x first coordinate
+     * @param y second coordinate
+     * @param z third coordinate
+     * @return this triad
+     */
+    public Vec3 set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /**
+     * set the coordinates to the coordinates of a point (or a vector)
+     *
+     * @param p the point
+     * @return this triad
+     */
+    public Vec3 set(Point p) {
+        x = p.xyz.d1;
+        y = p.xyz.d2;
+        z = p.xyz.d3;
+        return this;
+    }
+
+    /**
+     * set the triad to the vector from one point to another (to - from)
+     *
+     * @param to   the head of the vector
+     * @param from the tail of the vector
+     * @return this triad
+     */
+    public Vec3 setSubtract(Point to, Point from) {
+        x = to.xyz.d1 - from.xyz.d1;
+        y = to.xyz.d2 - from.xyz.d2;
+        z = to.xyz.d3 - from.xyz.d3;
+        return this;
+    }
+
+    /**
+     * set the triad to the cross product of two triads, the triad may be one of them
+     *
+     * @param a left operand
+     * @param b right operand
+     * @return this triad
+     */
+    public Vec3 setCross(Vec3 a, Vec3 b) {
+        double cx = a.y * b.z - a.z * b.y;
+        double cy = a.z * b.x - a.x * b.z;
+        double cz = a.x * b.y - a.y * b.x;
+        x = cx;
+        y = cy;
+        z = cz;
+        return this;
+    }
+
+    /**
+     * add another triad
+     *
+     * @param v the added triad
+     * @return this triad
+     */
+    public Vec3 add(Vec3 v) {
+        x += v.x;
+        y += v.y;
+        z += v.z;
+        return this;
+    }
+
+    /**
+     * add a scaled point (or vector): this + p * s
+     *
+     * @param p the added point
+     * @param s the scale of the point
+     * @return this triad
+     */
+    public Vec3 addScaled(Point p, double s) {
+        x += p.xyz.d1 * s;
+        y += p.xyz.d2 * s;
+        z += p.xyz.d3 * s;
+        return this;
+    }
+
+    /**
+     * add a scaled triad: this + v * s
+     *
+     * @param v the added triad
+     * @param s the scale of the triad
+     * @return this triad
+     */
+    public Vec3 addScaled(Vec3 v, double s) {
+        x += v.x * s;
+        y += v.y * s;
+        z += v.z * s;
+        return this;
+    }
+
+    /**
+     * multiply the triad by a number
+     *
+     * @param s the number
+     * @return this triad
+     */
+    public Vec3 scale(double s) {
+        x *= s;
+        y *= s;
+        z *= s;
+        return this;
+    }
+
+    /**
+     * normalize the triad to a unit length
+     *
+     * @return this triad
+     * @throws IllegalArgumentException if the triad is zero
+     */
+    public Vec3 normalize() {
+        double length = length();
+        if (length == 0)
+            throw new IllegalArgumentException("vector can't be zero");
+        x /= length;
+        y /= length;
+        z /= length;
+        return this;
+    }
+
+    /**
+     * dot product with another triad
+     *
+     * @param v the other triad
+     * @return the dot product
+     */
+    public double dotProduct(Vec3 v) {
+        return x * v.x + y * v.y + z * v.z;
+    }
+
+    /**
+     * dot product with a point (or a vector)
+     *
+     * @param p the point
+     * @return the dot product
+     */
+    public double dotProduct(Point p) {
+        return x * p.xyz.d1 + y * p.xyz.d2 + z * p.xyz.d3;
+    }
+
+    /**
+     * dot product of two points (or vectors) without creating objects
+     *
+     * @param a left operand
+     * @param b right operand
+     * @return the dot product
+     */
+    public static double dotProduct(Point a, Point b) {
+        return a.xyz.d1 * b.xyz.d1 + a.xyz.d2 * b.xyz.d2 + a.xyz.d3 * b.xyz.d3;
+    }
+
+    /**
+     * the squared length of the triad
+     *
+     * @return squared length
+     */
+    public double lengthSquared() {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * the length of the triad
+     *
+     * @return length
+     */
+    public double length() {
+        return Math.sqrt(lengthSquared());
+    }
+
+    /**
+     * keep the triad as a point
+     *
+     * @return a new point
+     */
+    public Point toPoint() {
+        return new Point(x, y, z);
+    }
+
+    /**
+     * keep the triad as a vector
+     *
+     * @return a new vector
+     * @throws IllegalArgumentException if the triad is zero
+     */
+    public Vector toVector() {
+        return new Vector(x, y, z);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + "," + y + "," + z + ")";
+    }
+}
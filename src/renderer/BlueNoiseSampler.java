@@ -0,0 +1,89 @@
+package renderer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Blue noise sampler - the points are random but keep a distance from each other, without
+ * the clumps of random points and without the regular pattern of a grid. <br/>
+ * A table of points is built once for every amount of points by Mitchell's best candidate
+ * algorithm on the torus (the square with wrapped edges), and every set is the table shifted
+ * by a random offset of the seed and wrapped around the square, which keeps the distances.
+ */
+public class BlueNoiseSampler implements Sampler {
+    /**
+     * the amount of random candidates for every point of a table, per point already in the table
+     */
+    private static final int CANDIDATES = 10;
+    /**
+     * the largest amount of candidates for a point, it bounds the time of building big tables
+     */
+    private static final int MAX_CANDIDATES = 100;
+    /**
+     * the tables by the amount of points, shared by all the samplers
+     */
+    private static final Map<Integer, double[]> tables = new ConcurrentHashMap<>();
+
+    /**
+     * every point of a table is chosen by the points before it, so a beginning of a table is
+     * a best candidate table by itself
+     */
+    @Override
+    public boolean isProgressive() {
+        return true;
+    }
+
+    @Override
+    public void generate(int count, long seed, double[] points) {
+        double[] table = tables.computeIfAbsent(count, BlueNoiseSampler::buildTable);
+        long state = Sampler.mix(seed);
+        double shiftX = Sampler.toUnit(state);
+        double shiftY = Sampler.toUnit(Sampler.mix(state));
+        for (int k = 0; k < 2 * count; k += 2) {
+            points[k] = wrap(table[k] + shiftX);
+            points[k + 1] = wrap(table[k + 1] + shiftY);
+        }
+    }
+
+    /**
+     * build a table of points by the best candidate algorithm: every new point is the
+     * candidate that is farthest from the points that were already chosen
+     *
+     * @param count amount of points
+     * @return the x and y of the points
+     */
+    private static double[] buildTable(int count) {
+        double[] table = new double[2 * count];
+        // a fixed seed - the tables are the same in every run
+        long state = Sampler.mix(count);
+        for (int i = 0; i < count; ++i) {
+            double bestDistance = -1;
+            for (int c = Math.max(1, Math.min(i * CANDIDATES, MAX_CANDIDATES)); c > 0; --c) {
+                state = Sampler.mix(state);
+                double x = Sampler.toUnit(state);
+                state = Sampler.mix(state);
+                double y = Sampler.toUnit(state);
+                double distance = Double.POSITIVE_INFINITY;
+                for (int k = 0; k < 2 * i && distance > 0; k += 2) {
+                    double dx = Math.abs(x - table[k]), dy = Math.abs(y - table[k + 1]);
+                    dx = Math.min(dx, 1 - dx);
+                    dy = Math.min(dy, 1 - dy);
+                    distance = Math.min(distance, dx * dx + dy * dy);
+                }
+                if (distance > bestDistance) {
+                    bestDistance = distance;
+                    table[2 * i] = x;
+                    table[2 * i + 1] = y;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * wrap a coordinate back into [0,1)
+     */
+    private static double wrap(double x) {
+        return x >= 1 ? x - 1 : x;
+    }
+}
@@ -2,9 +2,10 @@ package renderer;
 
 import primitives.*;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.MissingResourceException;
+import java.util.concurrent.ExecutorService;
 
 import static primitives.Util.*;
 
@@ -14,6 +15,15 @@ import static primitives.Util.*;
  * The view plane is represent by height and wight
  */
 public class Camera {
+    /**
+     * the sampler of the adaptive sampling when the sampler of the camera is not progressive -
+     * its first points are spread evenly for any amount of samples
+     */
+    private static final Sampler DEFAULT_ADAPTIVE_SAMPLER = new SobolSampler();
+    /**
+     * the 97.5% quantile of the normal distribution, for the 95% confidence interval
+     */
+    private static final double CONFIDENCE_Z = 1.96;
 
     private Point p0;
     private Vector vRight;
@@ -26,8 +36,31 @@ public class Camera {
     private ImageWriter imageWriter;
     private RayTracerBase rayTracer;
     private int antiAliasing=1;
+    private Sampler sampler = null;
     private boolean adaptive = false;
+    private double maxError = 0;
+    private int minSamples = 0;
+    private int maxSamples = 0;
+    private float[] errorMap = null;
+    /**
+     * the corner colors of the tile that every thread renders in adaptive super sampling
+     */
+    private final ThreadLocal<CornerCache> cornerCaches = ThreadLocal.withInitial(CornerCache::new);
+    /**
+     * the number of renderings of the camera, the corner caches don't keep colors between them
+     */
+    private long renders = 0;
+    private int[] sampleCounts = null;
     private int threadsCount = 1;
+    private int tileSize = 16;
+    private int packetSize = 1;
+    private ExecutorService executor = null;
+    private boolean virtualThreads = false;
+    /**
+     * the generator of the rays of the last geometry and resolution, it is immutable so the
+     * threads share it
+     */
+    private RayGenerator rayGenerator = null;
 
     /**
      * constructor for camera
@@ -186,6 +219,17 @@ public class Camera {
         this.antiAliasing = antiAliasing;
         return this;
     }
+    /**
+     * set the sampler of the anti aliasing rays. Without a sampler the rays go through
+     * a regular grid in the pixel
+     *
+     * @param sampler the sampler, for example {@link JitteredSampler} or {@link SobolSampler}
+     * @return the Camera object
+     */
+    public Camera setSampler(Sampler sampler) {
+        this.sampler = sampler;
+        return this;
+    }
     /**
      * set the adaptive
      *
@@ -195,6 +239,56 @@ public class Camera {
         this.adaptive = adaptive;
         return this;
     }
+    /**
+     * set the adaptive sampling by the variance of the samples. Every pixel gets samples through
+     * the points of the sampler until the error of its color is small enough: the half width of
+     * the 95% confidence interval of the mean, by the running variance of the samples, is at most
+     * maxError. Noisy pixels (edges, glossy surfaces, soft shadows) get more samples and smooth
+     * pixels stop early. The error is measured on the color components cut to 255, as they are
+     * printed. It replaces the anti aliasing and the adaptive super sampling of
+     * {@link #setadaptive(boolean)}. <br/>
+     * A pixel may stop after any amount of samples, so the sampler of the camera is used only if it
+     * is progressive ({@link Sampler#isProgressive()}) - the first points of a jittered set are the
+     * first rows of its grid, and a mean of them would be biased. Otherwise (or without a sampler)
+     * the points are by Sobol
+     *
+     * @param maxError   the highest error of a pixel in color levels (0..255), 0 disables the mode
+     * @param minSamples the least amount of samples of a pixel, the variance of less samples is not reliable
+     * @param maxSamples the budget of samples of a pixel
+     * @return the Camera object
+     * @throws IllegalArgumentException if the error is negative or the amounts of samples are wrong
+     */
+    public Camera setAdaptiveSampling(double maxError, int minSamples, int maxSamples) {
+        if (maxError < 0)
+            throw new IllegalArgumentException("The error can't be negative");
+        if (minSamples < 2 || maxSamples < minSamples)
+            throw new IllegalArgumentException("Wrong amounts of samples");
+        this.maxError = maxError;
+        this.minSamples = minSamples;
+        this.maxSamples = maxSamples;
+        return this;
+    }
+
+    /**
+     * get the errors of the pixels of the last rendering by adaptive sampling
+     *
+     * @return the half width of the 95% confidence interval of every pixel (row by row),
+     * null if the last rendering was not by adaptive sampling or the image is too big for an array
+     */
+    public float[] getErrorMap() {
+        return errorMap;
+    }
+
+    /**
+     * get the amounts of samples of the pixels of the last rendering by adaptive sampling
+     *
+     * @return the amount of samples of every pixel (row by row),
+     * null if the last rendering was not by adaptive sampling or the image is too big for an array
+     */
+    public int[] getSampleCounts() {
+        return sampleCounts;
+    }
+
     /**
      * set the threadsCount
      *
@@ -204,6 +298,63 @@ public class Camera {
         this.threadsCount = threadsCount;
         return this;
     }
+    /**
+     * set an executor for rendering, it can be shared by several cameras that render at the same time.
+     * The camera doesn't shut it down. If it is not set, the rendering uses a shared pool
+     * of threadsCount platform threads (or virtual threads, see {@link #setVirtualThreads(boolean)})
+     *
+     * @param executor the executor, a ForkJoinPool lets idle threads steal tiles from busy ones
+     * @return the Camera object
+     */
+    public Camera setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * set whether to render on virtual threads (threadsCount workers) instead of the shared
+     * platform pool, when no executor is set. It pays off when the rendering waits for I/O.
+     * If the JVM doesn't support virtual threads (before Java 21) the platform pool is used
+     *
+     * @param virtualThreads true to use virtual threads
+     * @return the Camera object
+     */
+    public Camera setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * set the size of the tiles that the image is split to between the threads
+     *
+     * @param tileSize the width and the height of a tile in pixels
+     * @return the Camera object
+     * @throws IllegalArgumentException if the tile size is not positive
+     */
+    public Camera setTileSize(int tileSize) {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("Tile size must be positive");
+        this.tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * set the size of the packets of primary rays. The rays of a block of neighbouring pixels
+     * (2x2, 4x2 or 4x4) are traced together through the geometries, which saves the repeated
+     * tests of the same boxes by coherent rays. The packets are used only with a single ray
+     * per pixel (no anti aliasing and no adaptive sampling), the image is the same
+     *
+     * @param packetSize the amount of rays in a packet - 1 (no packets), 4, 8 or 16
+     * @return the Camera object
+     * @throws IllegalArgumentException if the size is not 1, 4, 8 or 16
+     */
+    public Camera setPacketSize(int packetSize) {
+        if (packetSize != 1 && packetSize != 4 && packetSize != 8 && packetSize != 16)
+            throw new IllegalArgumentException("Packet size must be 1, 4, 8 or 16");
+        this.packetSize = packetSize;
+        return this;
+    }
+
     /**
      * set senter the camera
      *
@@ -227,50 +378,87 @@ public class Camera {
                 || imageWriter == null || rayTracer == null) {
             throw new MissingResourceException("Missing camera data", Camera.class.getName(), null);
         }
-        Pixel.initialize(imageWriter.getNy(), imageWriter.getNx(), 1);
-
-        if (!adaptive) {
-            // Render image using multi-threading and regular anti-aliasing
-            while (threadsCount-- > 0) {
-                new Thread(() -> {
-                    for (Pixel pixel = new Pixel(); pixel.nextPixel(); Pixel.pixelDone())
-                        imageWriter.writePixel(pixel.col, pixel.row, rayTracer.
-                                TraceRays(constructRays(imageWriter.getNx(),
-                                        imageWriter.getNy(), pixel.col, pixel.row,
-                                        antiAliasing)));
-                }).start();
-            }
-            Pixel.waitToFinish();
-        } else {
-            // Render image using multi-threading and adaptive super-sampling
-            while (threadsCount-- > 0) {
-                new Thread(() -> {
-                    for (Pixel pixel = new Pixel(); pixel.nextPixel(); Pixel.pixelDone())
-                        imageWriter.writePixel(pixel.col, pixel.row, AdaptiveSuperSampling(imageWriter.getNx(),
-                                imageWriter.getNy(), pixel.col, pixel.row, antiAliasing));
-                }).start();
-            }
-            Pixel.waitToFinish();
+        rayTracer.prepare();
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+
+        long render = ++renders;
+        errorMap = null;
+        sampleCounts = null;
+        // an image that is too big for an array is sampled without maps
+        if (maxError > 0 && (long) nX * nY < Integer.MAX_VALUE) {
+            errorMap = new float[nX * nY];
+            sampleCounts = new int[nX * nY];
         }
+        RenderSession.PixelRenderer renderer = maxError > 0
+                // Render image using adaptive sampling by the variance
+                ? (col, row) -> imageWriter.writePixel(col, row, sampleByVariance(nX, nY, col, row))
+                : adaptive
+                // Render image using adaptive super-sampling
+                ? (col, row) -> imageWriter.writePixel(col, row,
+                AdaptiveSuperSampling(nX, nY, col, row, antiAliasing, render))
+                // Render image using regular anti-aliasing
+                : (col, row) -> imageWriter.writePixel(col, row,
+                rayTracer.TraceRays(constructRays(nX, nY, col, row, antiAliasing)));
+
+        // Render the tiles of the image using multi-threading, every rendering has its own session.
+        // The threads belong to the executor, so repeated renderings reuse them
+        ExecutorService renderExecutor = executor;
+        if (renderExecutor == null && virtualThreads)
+            renderExecutor = RenderSession.virtualThreadsExecutor();
+        if (renderExecutor == null)
+            renderExecutor = RenderSession.sharedPool(threadsCount);
+        RenderSession session = new RenderSession(nX, nY, tileSize, 1);
+        if (packetSize > 1 && antiAliasing == 1 && !adaptive && maxError == 0) {
+            // Render image by packets of the primary rays of blocks of pixels
+            int blockWidth = packetSize == 4 ? 2 : 4;
+            session.render(renderExecutor, threadsCount, (col, row, w, h) -> renderPacket(nX, nY, col, row, w, h),
+                    blockWidth, packetSize / blockWidth);
+        } else
+            session.render(renderExecutor, threadsCount, renderer);
         return this;
     }
 
+    /**
+     * Renders a block of pixels by a packet of their primary rays
+     *
+     * @param nX     Pixel length
+     * @param nY     Pixel width
+     * @param col    the column of the top left pixel of the block
+     * @param row    the row of the top left pixel of the block
+     * @param width  the amount of pixel columns in the block
+     * @param height the amount of pixel rows in the block
+     */
+    private void renderPacket(int nX, int nY, int col, int row, int width, int height) {
+        RayGenerator generator = rayGenerator(nX, nY);
+        List<Ray> rays = new ArrayList<>(width * height);
+        for (int i = row; i < row + height; ++i)
+            for (int j = col; j < col + width; ++j)
+                rays.add(generator.rayThroughPixel(j, i));
+        Color[] colors = rayTracer.TracePacket(new RayPacket(rays));
+        int k = 0;
+        for (int i = row; i < row + height; ++i)
+            for (int j = col; j < col + width; ++j)
+                imageWriter.writePixel(j, i, colors[k++]);
+    }
+
     /**
      * This method performs adaptive super sampling to determine the color of a pixel.
      * It uses individual rays to check the color and averages between them.
      * If necessary, it continues to send beams of rays in recursion.
+     * The corners of the pixel and of its sub-cells are points of an integer lattice (a fixed
+     * number of lattice cells per pixel), and the colors of the corners are kept in a cache
+     * of the tile, so a corner that is shared by neighbouring pixels or cells is traced once.
      *
      * @param nX           Pixel length
      * @param nY           Pixel width
      * @param j            The position of the pixel relative to the y-axis
      * @param i            The position of the pixel relative to the x-axis
      * @param numOfRays    The amount of rays sent
+     * @param render       The number of the rendering
      * @return             The color of the pixel
      */
-    private Color AdaptiveSuperSampling(int nX, int nY, int j, int i,  int numOfRays) {
-        Vector Vright = vRight;
-        Vector Vup = vUp;
-        Point cameraLoc = this.getP0();
+    private Color AdaptiveSuperSampling(int nX, int nY, int j, int i,  int numOfRays, long render) {
         int numOfRaysInRowCol = (int) Math.floor(Math.sqrt(numOfRays));
 
         // If only one ray is used, directly trace the ray through the pixel
@@ -278,19 +466,157 @@ public class Camera {
             return rayTracer.TraceRay(constructRayThroughPixel(nX, nY, j, i));
         }
 
-        Point pIJ = getCenterOfPixel(nX, nY, j, i);
+        CornerCache cache = cornerCaches.get();
+        cache.startTile(render, (long) (i / tileSize) * ((nX + tileSize - 1) / tileSize) + j / tileSize);
+
+        // the lattice has 2 * half cells per pixel - the smallest cells of the recursion have
+        // their corners and their centers on the lattice
+        int half = Integer.highestOneBit(numOfRaysInRowCol);
+        RayGenerator generator = rayGenerator(nX, nY);
+        double unitX = generator.rX / (2 * half);
+        double unitY = generator.rY / (2 * half);
+        // the upper left corner of the view plane is the origin of the lattice
+        Lattice lattice = new Lattice(cache, generator.corner, unitX, unitY, numOfRaysInRowCol, new Vec3());
+        return adaptiveSuperSamplingRec(lattice, (2 * j + 1) * half, (2 * i + 1) * half, half, 0, -1);
+    }
 
-        // Calculate the ratios of pixel width and height
-        double rY = alignZero(height / nY);
-        double rX = alignZero(width / nX);
+    /**
+     * The lattice of the corners of the adaptive super sampling of a pixel
+     *
+     * @param cache             the colors of the traced corners of the tile
+     * @param origin            the point of the lattice (0, 0) on the view plane
+     * @param unitX             the width of a lattice cell
+     * @param unitY             the height of a lattice cell
+     * @param numOfRaysInRowCol the amount of rays in a row of the finest level
+     * @param dir               a vector for the calculations
+     */
+    private record Lattice(CornerCache cache, Point origin, double unitX, double unitY, int numOfRaysInRowCol,
+                           Vec3 dir) {
+    }
 
-        double PRy = rY / numOfRaysInRowCol;
-        double PRx = rX / numOfRaysInRowCol;
+    /**
+     * Checks the color of a cell by the rays through its corners and averages between them and
+     * only if necessary continues in recursion to the quarters of the cell. A quarter doesn't
+     * trace its corner that is the corner of its parent and doesn't continue to the quarter of
+     * that corner.
+     *
+     * @param lattice the lattice of the pixel
+     * @param x       the column of the center of the cell in the lattice
+     * @param y       the row of the center of the cell in the lattice
+     * @param half    half of the size of the cell in lattice cells
+     * @param level   the depth of the recursion, 0 for the pixel
+     * @param skip    the corner of the parent (the index of the quarter in the parent), -1 for the pixel
+     * @return the color of the cell
+     */
+    private Color adaptiveSuperSamplingRec(Lattice lattice, int x, int y, int half, int level, int skip) {
+        if ((2 << level) > lattice.numOfRaysInRowCol)
+            return rayTracer.TraceRay(rayThroughLattice(lattice, x, y));
+
+        int[] corners = new int[4];
+        Color[] colors = new Color[4];
+        int count = 0;
+        for (int corner = 0; corner < 4; ++corner) {
+            if (corner == skip)
+                continue;
+            // the corners go left then right (by the second bit) and down then up (by the first bit),
+            // up is a lower row of the lattice
+            int dx = (corner & 2) == 0 ? -1 : 1, dy = (corner & 1) == 0 ? 1 : -1;
+            long key = CornerCache.key(x + dx * half, y + dy * half);
+            Color color = lattice.cache.get(key);
+            if (color == null) {
+                color = rayTracer.TraceRay(rayThroughLattice(lattice, x + dx * half, y + dy * half));
+                lattice.cache.put(key, color);
+            }
+            colors[count] = color;
+            corners[count++] = corner;
+        }
 
-        // Perform recursive adaptive super sampling
-        return rayTracer.AdaptiveSuperSamplingRec(pIJ, rX, rY, PRx, PRy, cameraLoc, Vright, Vup, null);
+        boolean isAllEquals = true;
+        for (int k = 1; k < count; ++k)
+            if (!colors[0].isAlmostEquals(colors[k]))
+                isAllEquals = false;
+        if (isAllEquals && count > 1)
+            return colors[0];
+
+        Color color = Color.BLACK;
+        for (int k = 0; k < count; ++k) {
+            int corner = corners[k];
+            int dx = (corner & 2) == 0 ? -1 : 1, dy = (corner & 1) == 0 ? 1 : -1;
+            color = color.add(adaptiveSuperSamplingRec(lattice, x + dx * half / 2, y + dy * half / 2, half / 2,
+                    level + 1, corner));
+        }
+        return color.reduce(count);
     }
 
+    /**
+     * Creates a ray through a point of the lattice
+     *
+     * @param lattice the lattice
+     * @param x       the column of the point
+     * @param y       the row of the point
+     * @return the ray
+     */
+    private Ray rayThroughLattice(Lattice lattice, int x, int y) {
+        Vec3 dir = lattice.dir.set(lattice.origin).addScaled(vRight, x * lattice.unitX)
+                .addScaled(vUp, -y * lattice.unitY).addScaled(p0, -1);
+        return new Ray(p0, dir.toVector());
+    }
+
+
+    /**
+     * Samples a pixel until the error of its color is small enough or its budget is used
+     * and keeps the error and the amount of samples in the maps.
+     * The mean and the variance are updated by Welford's algorithm for every sample
+     *
+     * @param nX Pixel length
+     * @param nY Pixel width
+     * @param j  The position of the pixel relative to the y-axis
+     * @param i  The position of the pixel relative to the x-axis
+     * @return The color of the pixel - the mean of the samples
+     */
+    private Color sampleByVariance(int nX, int nY, int j, int i) {
+        RayGenerator generator = rayGenerator(nX, nY);
+        double[] points = new double[2 * maxSamples];
+        (sampler != null && sampler.isProgressive() ? sampler : DEFAULT_ADAPTIVE_SAMPLER).generate(maxSamples, (long) i * nX + j, points);
+        Vec3 pIJ = generator.pixelCenter(j, i, new Vec3());
+        Vec3 dir = new Vec3();
+
+        // the means of the components, the sums of the squared differences from the means
+        double meanR = 0, meanG = 0, meanB = 0;
+        double m2R = 0, m2G = 0, m2B = 0;
+        // the sum of the samples without the cut to 255 - the color of the pixel
+        double sumR = 0, sumG = 0, sumB = 0;
+        double error = Double.POSITIVE_INFINITY;
+        int n = 0;
+        while (n < maxSamples) {
+            Color color = rayTracer.TraceRay(rayThroughPoint(pIJ, generator.rX, generator.rY,
+                    points[2 * n], points[2 * n + 1], dir));
+            sumR += color.getR();
+            sumG += color.getG();
+            sumB += color.getB();
+            ++n;
+            double r = Math.min(color.getR(), 255), g = Math.min(color.getG(), 255), b = Math.min(color.getB(), 255);
+            double dR = r - meanR, dG = g - meanG, dB = b - meanB;
+            meanR += dR / n;
+            meanG += dG / n;
+            meanB += dB / n;
+            m2R += dR * (r - meanR);
+            m2G += dG * (g - meanG);
+            m2B += dB * (b - meanB);
+            if (n >= minSamples) {
+                // the variance of the noisiest component, the standard error of the mean is sqrt(variance / n)
+                double variance = Math.max(m2R, Math.max(m2G, m2B)) / (n - 1);
+                error = CONFIDENCE_Z * Math.sqrt(variance / n);
+                if (error <= maxError)
+                    break;
+            }
+        }
+        if (errorMap != null) {
+            errorMap[i * nX + j] = (float) error;
+            sampleCounts[i * nX + j] = n;
+        }
+        return new Color(sumR / n, sumG / n, sumB / n);
+    }
 
     /**
      *Grid printing
@@ -314,48 +640,31 @@ public class Camera {
      * @return ray that goes through the pixel (j, i)  Ray(p0, Vi,j)
      */
     public Ray constructRayThroughPixel(int nX, int nY, int j, int i) {
-        Point pIJ = getCenterOfPixel(nX, nY, j, i); // center point of the pixel
-
-        //Vi,j = Pi,j - P0, the direction of the ray to the pixel(j, i)
-        Vector vIJ = pIJ.subtract(p0);
-        return new Ray(p0, vIJ);
+        return rayGenerator(nX, nY).rayThroughPixel(j, i);
     }
 
     /**
-     * get the center point of the pixel in the view plane
+     * get the generator of the rays of the current geometry of the camera, it is calculated
+     * again only if the geometry or the resolution was changed
      *
      * @param nX number of pixels in the width of the view plane
      * @param nY number of pixels in the height of the view plane
-     * @param j  index row in the view plane
-     * @param i  index column in the view plane
-     * @return the center point of the pixel
+     * @return the generator of the rays
      */
-    private Point getCenterOfPixel(int nX, int nY, int j, int i) {
-        // calculate the ratio of the pixel by the height and by the width of the view plane
-        // the ratio Ry = h/Ny, the height of the pixel
-        double rY = alignZero(height / nY);
-        // the ratio Rx = w/Nx, the width of the pixel
-        double rX = alignZero(width / nX);
-
-        // Xj = (j - (Nx -1)/2) * Rx
-        double xJ = alignZero((j - ((nX - 1d) / 2d)) * rX);
-        // Yi = -(i - (Ny - 1)/2) * Ry
-        double yI = alignZero(-(i - ((nY - 1d) / 2d)) * rY);
-
-        Point pIJ = centerPoint;
-
-        if (!isZero(xJ)) {
-            pIJ = pIJ.add(vRight.scale(xJ));
-        }
-        if (!isZero(yI)) {
-            pIJ = pIJ.add(vUp.scale(yI));
+    private RayGenerator rayGenerator(int nX, int nY) {
+        RayGenerator generator = rayGenerator;
+        if (generator == null || !generator.matches(p0, centerPoint, vRight, vUp, width, height, nX, nY)) {
+            generator = new RayGenerator(p0, centerPoint, vRight, vUp, width, height, nX, nY);
+            rayGenerator = generator;
         }
-        return pIJ;
+        return generator;
     }
 
     /**
      * Creates a beam of rays into a square grid.
      * The method constructs multiple rays for a given pixel in the grid, allowing for sub-pixel sampling.
+     * If the camera has a sampler the beam has numOfRays * numOfRays rays through the points of
+     * the sampler over the whole pixel, every pixel has its own set of points.
      *
      * @param nX         Pixel length
      * @param nY         Pixel width
@@ -372,22 +681,22 @@ public class Camera {
 
         if (numOfRays == 1) {
             return List.of(constructRayThroughPixel(nX, nY, j, i));
+        } else if (sampler != null) {
+            return constructSampledRays(nX, nY, j, i, numOfRays * numOfRays);
         } else {
-            List<Ray> rays = new LinkedList<>();
-            Point pIJ = getCenterOfPixel(nX, nY, j, i);
+            List<Ray> rays = new ArrayList<>((numOfRays - 1) * (numOfRays - 1));
+            RayGenerator generator = rayGenerator(nX, nY);
+            Vec3 pIJ = generator.pixelCenter(j, i, new Vec3());
 
-            double rY = alignZero(height / nY); // The ratio Ry = h/Ny, the height of the pixel
-            double rX = alignZero(width / nX);  // The ratio Rx = w/Nx, the width of the pixel
-
-            double pY = alignZero(rY / numOfRays); // Calculate the step size for the vertical direction
-            double pX = alignZero(rX / numOfRays); // Calculate the step size for the horizontal direction
-            Point PijTemP = pIJ;
+            double pY = alignZero(generator.rY / numOfRays); // Calculate the step size for the vertical direction
+            double pX = alignZero(generator.rX / numOfRays); // Calculate the step size for the horizontal direction
+            Vec3 dir = new Vec3();
 
             // Generate rays for each sub-pixel within the pixel
             for (int p = 1; p < numOfRays; p++) {
                 for (int m = 1; m < numOfRays; m++) {
-                    PijTemP = pIJ.add(vRight.scale(pX * m)).add(vUp.scale(pY * p));
-                    rays.add(new Ray(p0, PijTemP.subtract(p0).normalize()));
+                    dir.set(pIJ.x, pIJ.y, pIJ.z).addScaled(vRight, pX * m).addScaled(vUp, pY * p).addScaled(p0, -1);
+                    rays.add(new Ray(p0, dir.toVector().normalize()));
                 }
             }
 
@@ -396,6 +705,46 @@ public class Camera {
     }
 
 
+    /**
+     * Creates a beam of rays through the points of the sampler in a pixel
+     *
+     * @param nX    Pixel length
+     * @param nY    Pixel width
+     * @param j     Position the pixel on the y-axis inside the grid
+     * @param i     Position the pixel on the x-axis inside the grid
+     * @param count The amount of rays
+     * @return List of beams of rays
+     */
+    private List<Ray> constructSampledRays(int nX, int nY, int j, int i, int count) {
+        RayGenerator generator = rayGenerator(nX, nY);
+        double[] points = new double[2 * count];
+        sampler.generate(count, (long) i * nX + j, points);
+
+        Vec3 pIJ = generator.pixelCenter(j, i, new Vec3());
+        Vec3 dir = new Vec3();
+        List<Ray> rays = new ArrayList<>(count);
+        for (int k = 0; k < 2 * count; k += 2)
+            rays.add(rayThroughPoint(pIJ, generator.rX, generator.rY, points[k], points[k + 1], dir));
+        return rays;
+    }
+
+    /**
+     * Creates a ray through a point of a sampler in a pixel
+     *
+     * @param pIJ the center of the pixel
+     * @param rX  the width of the pixel
+     * @param rY  the height of the pixel
+     * @param u   the x of the point in the unit square
+     * @param v   the y of the point in the unit square
+     * @param dir a vector for the calculation
+     * @return the ray
+     */
+    private Ray rayThroughPoint(Vec3 pIJ, double rX, double rY, double u, double v, Vec3 dir) {
+        // the point of the sampler is moved from the unit square to the pixel around its center
+        dir.set(pIJ.x, pIJ.y, pIJ.z).addScaled(vRight, (u - 0.5) * rX).addScaled(vUp, (0.5 - v) * rY).addScaled(p0, -1);
+        return new Ray(p0, dir.normalize().toVector());
+    }
+
     /**
      * Invites the coloring function
      */
@@ -0,0 +1,114 @@
+package renderer;
+
+import primitives.Color;
+
+/**
+ * Cache of the colors of the corner rays of the adaptive super sampling in one tile. <br/>
+ * The corners of the pixels and of their sub-cells are points of an integer lattice on the
+ * view plane, so a corner is keyed by its lattice coordinates and the neighbouring pixels
+ * and cells find the colors of their shared corners instead of tracing them again.
+ * The keys are kept in an open addressing table of primitive longs. A cache belongs to one
+ * thread, and it is cleared (in constant time) when the thread moves to another tile or to
+ * another rendering - the threads of a pool live across renderings, and a scene or a camera
+ * may change between them.
+ */
+final class CornerCache {
+    /**
+     * the initial capacity of the table, a power of 2
+     */
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Color[] colors = new Color[INITIAL_CAPACITY];
+    /**
+     * the generation of every entry, an entry of an older generation is empty
+     */
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int generation = 1;
+    private int size = 0;
+    private long render = -1;
+    private long tile = -1;
+
+    /**
+     * start a tile, the cache is cleared if it held another tile or a tile of another rendering
+     *
+     * @param render the number of the rendering
+     * @param tile   the index of the tile
+     */
+    void startTile(long render, long tile) {
+        if (render == this.render && tile == this.tile)
+            return;
+        this.render = render;
+        this.tile = tile;
+        ++generation;
+        size = 0;
+    }
+
+    /**
+     * the key of a point of the lattice
+     *
+     * @param x the column in the lattice
+     * @param y the row in the lattice
+     * @return the key
+     */
+    static long key(int x, int y) {
+        return (long) x << 32 | (y & 0xffffffffL);
+    }
+
+    /**
+     * find the color of a corner
+     *
+     * @param key the key of the corner
+     * @return the color, null if the corner was not traced in this tile
+     */
+    Color get(long key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; generations[i] == generation; i = (i + 1) & mask)
+            if (keys[i] == key)
+                return colors[i];
+        return null;
+    }
+
+    /**
+     * keep the color of a corner, the corner must not be in the cache
+     *
+     * @param key   the key of the corner
+     * @param color the color
+     */
+    void put(long key, Color color) {
+        if (2 * (size + 1) > keys.length)
+            grow();
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (generations[i] == generation)
+            i = (i + 1) & mask;
+        keys[i] = key;
+        colors[i] = color;
+        generations[i] = generation;
+        ++size;
+    }
+
+    /**
+     * double the capacity of the table and move the entries of the current generation
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        Color[] oldColors = colors;
+        int[] oldGenerations = generations;
+        keys = new long[oldKeys.length * 2];
+        colors = new Color[oldKeys.length * 2];
+        generations = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; ++i)
+            if (oldGenerations[i] == generation)
+                put(oldKeys[i], oldColors[i]);
+    }
+
+    /**
+     * spread the bits of a key over the table
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+}
@@ -0,0 +1,148 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Float RGB buffer of the pixels of an image. <br/>
+ * Every pixel has {@value #STRIDE} floats - the red, green and blue sums of its samples and
+ * their weight. The rows are kept in segments of at most {@value #SEGMENT_FLOATS} floats, either
+ * on the heap or in a temporary file that is mapped into memory. A mapped buffer is not limited
+ * by the heap: only the pages of the rows that are being rendered or encoded are resident, and
+ * the operating system writes the finished rows back to the file when it needs the memory.
+ * <p>
+ * A pixel must be written by one thread at a time, different pixels are written without locks.
+ */
+final class FrameBuffer {
+    /**
+     * amount of floats per pixel
+     */
+    static final int STRIDE = 4;
+    /**
+     * the largest segment in floats (1GB)
+     */
+    private static final int SEGMENT_FLOATS = 1 << 28;
+
+    private final int nX;
+    private final int rowsPerSegment;
+    private final FloatBuffer[] segments;
+    private final boolean mapped;
+
+    /**
+     * Constructor of a buffer of black pixels
+     *
+     * @param nX     the width of the image
+     * @param nY     the height of the image
+     * @param mapped true to keep the buffer in a mapped temporary file, false for the heap
+     * @throws IOException if the temporary file can't be created
+     */
+    FrameBuffer(int nX, int nY, boolean mapped) throws IOException {
+        long rowFloats = (long) nX * STRIDE;
+        if (rowFloats > SEGMENT_FLOATS)
+            throw new IllegalArgumentException("The image is too wide: " + nX);
+        this.nX = nX;
+        this.mapped = mapped;
+        rowsPerSegment = (int) Math.min(nY, SEGMENT_FLOATS / rowFloats);
+        segments = new FloatBuffer[(nY + rowsPerSegment - 1) / rowsPerSegment];
+        if (!mapped) {
+            for (int s = 0; s < segments.length; ++s)
+                segments[s] = FloatBuffer.wrap(new float[(int) (rows(s, nY) * rowFloats)]);
+            return;
+        }
+
+        Path file = Files.createTempFile("frame", ".buf");
+        // the file is deleted when the channel is closed, the mappings stay valid until they are collected
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE)) {
+            long position = 0;
+            for (int s = 0; s < segments.length; ++s) {
+                long size = rows(s, nY) * rowFloats * Float.BYTES;
+                segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, position, size)
+                        .order(ByteOrder.nativeOrder()).asFloatBuffer();
+                position += size;
+            }
+        }
+    }
+
+    /**
+     * the amount of rows in a segment
+     */
+    private int rows(int segment, int nY) {
+        return Math.min(rowsPerSegment, nY - segment * rowsPerSegment);
+    }
+
+    /**
+     * whether the buffer is in a mapped file
+     *
+     * @return true if the buffer is out of the heap
+     */
+    boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * replace the value of a pixel by a single sample
+     *
+     * @param x      column of the pixel
+     * @param y      row of the pixel
+     * @param r      red component
+     * @param g      green component
+     * @param b      blue component
+     * @param weight weight of the sample
+     */
+    void set(int x, int y, float r, float g, float b, float weight) {
+        FloatBuffer segment = segments[y / rowsPerSegment];
+        int i = ((y % rowsPerSegment) * nX + x) * STRIDE;
+        segment.put(i, r);
+        segment.put(i + 1, g);
+        segment.put(i + 2, b);
+        segment.put(i + 3, weight);
+    }
+
+    /**
+     * add a sample to a pixel
+     *
+     * @param x      column of the pixel
+     * @param y      row of the pixel
+     * @param r      red component multiplied by the weight
+     * @param g      green component multiplied by the weight
+     * @param b      blue component multiplied by the weight
+     * @param weight weight of the sample
+     */
+    void add(int x, int y, float r, float g, float b, float weight) {
+        FloatBuffer segment = segments[y / rowsPerSegment];
+        int i = ((y % rowsPerSegment) * nX + x) * STRIDE;
+        segment.put(i, segment.get(i) + r);
+        segment.put(i + 1, segment.get(i + 1) + g);
+        segment.put(i + 2, segment.get(i + 2) + b);
+        segment.put(i + 3, segment.get(i + 3) + weight);
+    }
+
+    /**
+     * read the floats of a pixel
+     *
+     * @param x     column of the pixel
+     * @param y     row of the pixel
+     * @param pixel the array to fill with {@value #STRIDE} floats
+     */
+    void get(int x, int y, float[] pixel) {
+        segments[y / rowsPerSegment].get(((y % rowsPerSegment) * nX + x) * STRIDE, pixel, 0, STRIDE);
+    }
+
+    /**
+     * read the floats of consecutive pixels of a row
+     *
+     * @param x      column of the first pixel
+     * @param y      the row
+     * @param count  amount of pixels
+     * @param pixels the array to fill with {@value #STRIDE} floats per pixel
+     */
+    void get(int x, int y, int count, float[] pixels) {
+        segments[y / rowsPerSegment].get(((y % rowsPerSegment) * nX + x) * STRIDE, pixels, 0, count * STRIDE);
+    }
+}
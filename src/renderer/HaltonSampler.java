@@ -0,0 +1,45 @@
+package renderer;
+
+/**
+ * Low discrepancy sampler by the Halton sequence in bases 2 and 3. <br/>
+ * Every set is the beginning of the sequence, shifted by a random offset of the seed
+ * (Cranley-Patterson rotation) and wrapped around the square.
+ */
+public class HaltonSampler implements Sampler {
+    @Override
+    public boolean isProgressive() {
+        return true;
+    }
+
+    @Override
+    public void generate(int count, long seed, double[] points) {
+        long state = Sampler.mix(seed);
+        double shiftX = Sampler.toUnit(state);
+        double shiftY = Sampler.toUnit(Sampler.mix(state));
+        for (int i = 0, k = 0; i < count; ++i) {
+            points[k++] = wrap(radicalInverse(i + 1, 2) + shiftX);
+            points[k++] = wrap(radicalInverse(i + 1, 3) + shiftY);
+        }
+    }
+
+    /**
+     * the radical inverse of an index - its digits mirrored around the point
+     *
+     * @param index the index
+     * @param base  the base of the digits
+     * @return the inverse in [0,1)
+     */
+    static double radicalInverse(int index, int base) {
+        double inverse = 0, digit = 1d / base;
+        for (; index > 0; index /= base, digit /= base)
+            inverse += (index % base) * digit;
+        return inverse;
+    }
+
+    /**
+     * wrap a coordinate back into [0,1)
+     */
+    private static double wrap(double x) {
+        return x >= 1 ? x - 1 : x;
+    }
+}
@@ -2,10 +2,11 @@ package renderer;
 
 import primitives.Color;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,15 +15,44 @@ import java.util.logging.Logger;
  * producing a non-optimized jpeg image from this matrix. The class although is
  * responsible of holding image related parameters of View Plane - pixel matrix
  * size and resolution
+ * <p>
+ * The colors are kept in a float RGB {@link FrameBuffer} (high dynamic range, not limited to 255), so
+ * writing a pixel is a few array stores without locks or conversions - every pixel is written
+ * by one thread at a time, so the render threads don't need any synchronization. A pixel may
+ * also accumulate several samples (for progressive rendering), it holds the sum of the samples
+ * and their weight. The tone mapping and the conversion into 8 bits are done once for the whole
+ * image when it is written, by bands of rows that are compressed into the PNG file in parallel.
+ * An image whose buffer would take more than a quarter of the heap is kept out of the heap, in a
+ * mapped temporary file, so posters much bigger than the heap can be rendered.
  *
  * @author Dan
  */
 public class ImageWriter {
     private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
+    /**
+     * Tone mapping of the HDR colors into the displayable range 0..255
+     */
+    public enum ToneMapping {
+        /**
+         * every component above 255 is cut to 255
+         */
+        CLAMP,
+        /**
+         * Reinhard operator c / (1 + c) on the components scaled to 0..1, it keeps the details of bright areas
+         */
+        REINHARD
+    }
+
+    /**
+     * amount of pixels that are tone mapped at once
+     */
+    private static final int CHUNK = 1024;
+
     private int nX;
     private int nY;
-    private BufferedImage image;
+    private FrameBuffer buffer;
     private String imageName;
+    private ToneMapping toneMapping = ToneMapping.CLAMP;
 
     private Logger logger = Logger.getLogger("ImageWriter");
 
@@ -38,7 +68,23 @@ public class ImageWriter {
         this.nX = nX;
         this.nY = nY;
 
-        image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        long size = (long) nX * nY * FrameBuffer.STRIDE * Float.BYTES;
+        buffer = createBuffer(size > Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    /**
+     * create the buffer of the pixels
+     *
+     * @param mapped true to keep the buffer in a mapped file
+     * @return the buffer
+     */
+    private FrameBuffer createBuffer(boolean mapped) {
+        try {
+            return new FrameBuffer(nX, nY, mapped);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't create the temporary image file", e);
+        }
     }
 
     //region Getters/Setters
@@ -60,16 +106,54 @@ public class ImageWriter {
     public int getNx() {
         return nX;
     }
+
+    /**
+     * whether the pixels are kept out of the heap, in a mapped temporary file
+     *
+     * @return true if the image is out of the heap
+     */
+    public boolean isOutOfCore() {
+        return buffer.isMapped();
+    }
+
+    /**
+     * choose where the pixels are kept instead of the automatic choice by the size of the image.
+     * The pixels that were already written are cleared
+     *
+     * @param outOfCore true to keep the pixels in a mapped temporary file, false for the heap
+     * @return the image writer
+     */
+    public ImageWriter setOutOfCore(boolean outOfCore) {
+        if (outOfCore != buffer.isMapped())
+            buffer = createBuffer(outOfCore);
+        return this;
+    }
+
+    /**
+     * setter of the tone mapping of the written image
+     *
+     * @param toneMapping the tone mapping, CLAMP by default
+     * @return the image writer
+     */
+    public ImageWriter setToneMapping(ToneMapping toneMapping) {
+        this.toneMapping = toneMapping;
+        return this;
+    }
 //endregion
 
     /**
-     * Function writeToImage produces unoptimized png file of the image according to
-     * pixel color matrix in the directory of the project
+     * Function writeToImage produces png file of the image according to
+     * pixel color matrix in the directory of the project. <br/>
+     * The pixels may still change after the rendering (e.g. by {@link #printGrid(int, Color)}), so
+     * the file is written only here, when all the bands of rows are ready - they are compressed in
+     * parallel but not while the image is rendered
      */
     public void writeToImage() {
-        try {
-            File file = new File(FOLDER_PATH + '/' + imageName + ".png");
-            ImageIO.write(image, "png", file);
+        ExecutorService executor = RenderSession.sharedPool(Runtime.getRuntime().availableProcessors());
+        try (PngWriter png = new PngWriter(Path.of(FOLDER_PATH, imageName + ".png"), nX, nY, this::toneMapRow,
+                executor)) {
+            for (int band = 0; band < png.getBandCount(); ++band)
+                png.submitBand(band);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "I/O error", e);
             throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
@@ -85,7 +169,91 @@ public class ImageWriter {
      * @param color  final color of the pixel
      */
     public void writePixel(int xIndex, int yIndex, Color color) {
-        image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+        buffer.set(xIndex, yIndex, (float) color.getR(), (float) color.getG(), (float) color.getB(), 1);
+    }
+
+    /**
+     * The function addSample adds a sample color to a pixel, the pixel is the
+     * weighted average of its samples
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @param color  color of the sample
+     * @param weight weight of the sample
+     */
+    public void addSample(int xIndex, int yIndex, Color color, double weight) {
+        buffer.add(xIndex, yIndex, (float) (color.getR() * weight), (float) (color.getG() * weight),
+                (float) (color.getB() * weight), (float) weight);
+    }
+
+    /**
+     * The function getPixel returns the HDR color of a pixel - the average of its samples
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return the color of the pixel, black if nothing was written
+     */
+    public Color getPixel(int xIndex, int yIndex) {
+        float[] pixel = new float[FrameBuffer.STRIDE];
+        buffer.get(xIndex, yIndex, pixel);
+        float weight = pixel[3];
+        if (weight == 0)
+            return Color.BLACK;
+        return new Color(pixel[0] / weight, pixel[1] / weight, pixel[2] / weight);
+    }
+
+    /**
+     * tone map the whole buffer into an 8 bit RGB image
+     *
+     * @return the image
+     */
+    BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        int[] rgb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        byte[] row = new byte[3 * nX];
+        for (int y = 0, p = 0; y < nY; ++y) {
+            toneMapRow(y, row, 0);
+            for (int x = 0; x < 3 * nX; x += 3)
+                rgb[p++] = (row[x] & 0xff) << 16 | (row[x + 1] & 0xff) << 8 | row[x + 2] & 0xff;
+        }
+        return image;
+    }
+
+    /**
+     * tone map a row of the buffer into 8 bit RGB components
+     *
+     * @param y      the index of the row
+     * @param rgb    the array to fill with 3 bytes per pixel
+     * @param offset the position of the first pixel in the array
+     */
+    void toneMapRow(int y, byte[] rgb, int offset) {
+        boolean reinhard = toneMapping == ToneMapping.REINHARD;
+        float[] pixels = new float[Math.min(nX, CHUNK) * FrameBuffer.STRIDE];
+        for (int x = 0; x < nX; x += CHUNK) {
+            int count = Math.min(CHUNK, nX - x);
+            buffer.get(x, y, count, pixels);
+            for (int i = 0, end = count * FrameBuffer.STRIDE; i < end; i += FrameBuffer.STRIDE) {
+                float weight = pixels[i + 3];
+                float scale = weight == 0 || weight == 1 ? 1 : 1 / weight;
+                rgb[offset++] = (byte) toByte(pixels[i] * scale, reinhard);
+                rgb[offset++] = (byte) toByte(pixels[i + 1] * scale, reinhard);
+                rgb[offset++] = (byte) toByte(pixels[i + 2] * scale, reinhard);
+            }
+        }
+    }
+
+    /**
+     * convert a component into 8 bits
+     *
+     * @param c        the component, 255 for the printed white
+     * @param reinhard whether to use the Reinhard operator or to clamp
+     * @return the 8 bit component
+     */
+    private static int toByte(float c, boolean reinhard) {
+        if (reinhard)
+            c = c / (1 + c / 255);
+        int b = (int) c;
+        return b > 255 ? 255 : b;
     }
 
     /**
@@ -0,0 +1,27 @@
+package renderer;
+
+/**
+ * Stratified sampler - the square is split into a grid of cells and every cell gets
+ * one point at a random position inside it. When the amount of points is not a square
+ * the last points are spread randomly over the whole square.
+ */
+public class JitteredSampler implements Sampler {
+    @Override
+    public void generate(int count, long seed, double[] points) {
+        int n = (int) Math.sqrt(count);
+        double cell = 1d / n;
+        long state = Sampler.mix(seed);
+        int k = 0;
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < n; ++j) {
+                state = Sampler.mix(state);
+                points[k++] = (j + Sampler.toUnit(state)) * cell;
+                state = Sampler.mix(state);
+                points[k++] = (i + Sampler.toUnit(state)) * cell;
+            }
+        while (k < 2 * count) {
+            state = Sampler.mix(state);
+            points[k++] = Sampler.toUnit(state);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streaming PNG writer of 8 bit RGB images that compresses bands of rows in parallel. <br/>
+ * The image is split into bands of rows. A band is submitted when its rows are ready (in any
+ * order), then it is filtered and deflated on the executor, independently of the other bands:
+ * every band but the last ends with a sync flush, so the deflated bands are simply concatenated
+ * into one zlib stream, and the Adler32 checksums of the bands are combined. The finished bands
+ * are written to the file in order as IDAT chunks, so only the bands in progress are in memory.
+ */
+final class PngWriter implements AutoCloseable {
+    /**
+     * the signature at the beginning of every PNG file
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    /**
+     * zlib header - deflate with a 32K window and the default compression
+     */
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9C};
+    /**
+     * the size of the uncompressed data of a band that is aimed at, in bytes
+     */
+    private static final int BAND_SIZE = 1 << 20;
+    /**
+     * the modulus of Adler32
+     */
+    private static final int ADLER_BASE = 65521;
+
+    /**
+     * Source of the rows of the image, it may be called by several threads at once
+     */
+    @FunctionalInterface
+    interface RowSource {
+        /**
+         * put the 8 bit red, green and blue components of a row
+         *
+         * @param y      the index of the row
+         * @param rgb    the array to fill with 3 bytes per pixel
+         * @param offset the position of the first pixel in the array
+         */
+        void getRow(int y, byte[] rgb, int offset);
+    }
+
+    /**
+     * A compressed band
+     *
+     * @param data   the deflated rows
+     * @param adler  the Adler32 checksum of the uncompressed rows
+     * @param length the length of the uncompressed rows
+     */
+    private record Band(byte[] data, int adler, long length) {
+    }
+
+    private final int width;
+    private final int height;
+    private final int bandHeight;
+    private final RowSource source;
+    private final ExecutorService executor;
+    private final FileChannel channel;
+    private final Future<?>[] futures;
+    /**
+     * compressed bands that wait for the previous bands to be written
+     */
+    private final Band[] done;
+    /**
+     * the next band to write into the file
+     */
+    private int next = 0;
+    /**
+     * the combined checksum of the written bands
+     */
+    private int adler = 1;
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Constructor - creates the file and writes the header of the image
+     *
+     * @param path     the path of the file
+     * @param width    the width of the image
+     * @param height   the height of the image
+     * @param source   the source of the rows
+     * @param executor the executor of the compression
+     * @throws IOException if the file can't be written
+     */
+    PngWriter(Path path, int width, int height, RowSource source, ExecutorService executor) throws IOException {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("The image must have pixels");
+        this.width = width;
+        this.height = height;
+        this.source = source;
+        this.executor = executor;
+        bandHeight = Math.max(1, Math.min(height, BAND_SIZE / rowSize()));
+        int bands = (height + bandHeight - 1) / bandHeight;
+        futures = new Future<?>[bands];
+        done = new Band[bands];
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            channel.write(ByteBuffer.wrap(SIGNATURE));
+            ByteBuffer header = ByteBuffer.allocate(13);
+            // 8 bits per component, RGB, deflate, adaptive filters, no interlace
+            header.putInt(width).putInt(height).put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+            writeChunk("IHDR", header.array());
+        } catch (IOException | RuntimeException e) {
+            // the writer is not returned, so nobody else would close the file
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * the amount of bands of the image
+     *
+     * @return amount of bands
+     */
+    int getBandCount() {
+        return futures.length;
+    }
+
+    /**
+     * the amount of rows in a band, the last band may have less rows
+     *
+     * @return amount of rows
+     */
+    int getBandHeight() {
+        return bandHeight;
+    }
+
+    /**
+     * submit a band when all its rows are ready, it is compressed on the executor
+     *
+     * @param band the index of the band
+     */
+    void submitBand(int band) {
+        if (futures[band] != null)
+            throw new IllegalArgumentException("Band " + band + " was already submitted");
+        futures[band] = executor.submit(() -> {
+            Band compressed = compress(band);
+            synchronized (this) {
+                done[band] = compressed;
+                writeDone();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * wait for all the bands and finish the file, all the bands must have been submitted
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (int band = 0; band < futures.length; ++band) {
+                if (futures[band] == null)
+                    throw new IllegalStateException("Band " + band + " was not submitted");
+                futures[band].get();
+            }
+            synchronized (this) {
+                writeChunk("IEND", new byte[0]);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io)
+                throw io;
+            throw new IllegalStateException("PNG compression failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("PNG writing was interrupted", e);
+        } finally {
+            // bands that are still running after a failure are cancelled
+            for (Future<?> future : futures)
+                if (future != null)
+                    future.cancel(false);
+            channel.close();
+        }
+    }
+
+    /**
+     * the size of a filtered row - a filter byte and 3 bytes per pixel
+     */
+    private int rowSize() {
+        return 1 + 3 * width;
+    }
+
+    /**
+     * filter and deflate the rows of a band
+     *
+     * @param band the index of the band
+     * @return the compressed band
+     */
+    private Band compress(int band) {
+        int first = band * bandHeight, last = Math.min(height, first + bandHeight);
+        int size = rowSize();
+        byte[] raw = new byte[(last - first) * size];
+        byte[] previous = new byte[3 * width], row = new byte[3 * width];
+        for (int y = first, o = 0; y < last; ++y, o += size) {
+            source.getRow(y, row, 0);
+            // the first row of a band doesn't depend on the previous band
+            if (y == first)
+                filterSub(row, raw, o);
+            else
+                filterPaeth(row, previous, raw, o);
+            byte[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+
+        Adler32 checksum = new Adler32();
+        checksum.update(raw);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            boolean lastBand = band == futures.length - 1;
+            if (lastBand)
+                deflater.finish();
+            byte[] out = new byte[raw.length / 4 + 64];
+            int length = 0;
+            while (true) {
+                if (length == out.length)
+                    out = Arrays.copyOf(out, out.length * 2);
+                int n = deflater.deflate(out, length, out.length - length,
+                        lastBand ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                length += n;
+                // the output is complete when it didn't fill the free space of the array
+                if (lastBand ? deflater.finished() : length < out.length && deflater.needsInput())
+                    break;
+            }
+            return new Band(Arrays.copyOf(out, length), (int) checksum.getValue(), raw.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * write the compressed bands that are ready in order, called under the lock
+     *
+     * @throws IOException if the file can't be written
+     */
+    private void writeDone() throws IOException {
+        while (next < done.length && done[next] != null) {
+            Band band = done[next];
+            done[next] = null;
+            adler = combineAdler(adler, band.adler, band.length);
+            byte[] prefix = next == 0 ? ZLIB_HEADER : new byte[0];
+            byte[] suffix = next == done.length - 1
+                    ? ByteBuffer.allocate(4).putInt(adler).array() : new byte[0];
+            writeChunk("IDAT", prefix, band.data, suffix);
+            ++next;
+        }
+    }
+
+    /**
+     * write a chunk of the file
+     *
+     * @param type  the type of the chunk
+     * @param parts the data of the chunk
+     * @throws IOException if the file can't be written
+     */
+    private void writeChunk(String type, byte[]... parts) throws IOException {
+        int length = 0;
+        for (byte[] part : parts)
+            length += part.length;
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        crc.reset();
+        crc.update(name);
+        for (byte[] part : parts)
+            crc.update(part);
+
+        ByteBuffer[] buffers = new ByteBuffer[parts.length + 2];
+        buffers[0] = ByteBuffer.allocate(8).putInt(length).put(name).flip();
+        for (int i = 0; i < parts.length; ++i)
+            buffers[i + 1] = ByteBuffer.wrap(parts[i]);
+        buffers[parts.length + 1] = ByteBuffer.allocate(4).putInt((int) crc.getValue()).flip();
+        long remaining = 12L + length;
+        while (remaining > 0)
+            remaining -= channel.write(buffers);
+    }
+
+    /**
+     * the Adler32 checksum of two concatenated blocks from their own checksums
+     *
+     * @param adler1  the checksum of the first block
+     * @param adler2  the checksum of the second block
+     * @param length2 the length of the second block
+     * @return the checksum of both blocks
+     */
+    static int combineAdler(int adler1, int adler2, long length2) {
+        long rem = length2 % ADLER_BASE;
+        long a1 = adler1 & 0xffff, b1 = (adler1 >>> 16) & 0xffff;
+        long a2 = adler2 & 0xffff, b2 = (adler2 >>> 16) & 0xffff;
+        long a = (a1 + a2 + ADLER_BASE - 1) % ADLER_BASE;
+        long b = (rem * a1 + b1 + b2 + ADLER_BASE - rem) % ADLER_BASE;
+        return (int) (b << 16 | a);
+    }
+
+    /**
+     * filter a row by the difference from the pixel on its left
+     *
+     * @param row    the row
+     * @param out    the array of the filtered rows
+     * @param offset the position of the filter byte of the row in the output
+     */
+    private static void filterSub(byte[] row, byte[] out, int offset) {
+        out[offset++] = 1;
+        for (int i = 0; i < row.length; ++i)
+            out[offset + i] = (byte) (row[i] - (i < 3 ? 0 : row[i - 3]));
+    }
+
+    /**
+     * filter a row by the difference from the Paeth predictor of the pixels on its left and above
+     *
+     * @param row      the row
+     * @param previous the previous row
+     * @param out      the array of the filtered rows
+     * @param offset   the position of the filter byte of the row in the output
+     */
+    private static void filterPaeth(byte[] row, byte[] previous, byte[] out, int offset) {
+        out[offset++] = 4;
+        for (int i = 0; i < row.length; ++i) {
+            int a = i < 3 ? 0 : row[i - 3] & 0xff;
+            int b = previous[i] & 0xff;
+            int c = i < 3 ? 0 : previous[i - 3] & 0xff;
+            int p = a + b - c;
+            int pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+            int predictor = pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+            out[offset + i] = (byte) (row[i] - predictor);
+        }
+    }
+}
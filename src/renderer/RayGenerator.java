@@ -0,0 +1,144 @@
+package renderer;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vec3;
+import primitives.Vector;
+
+import static primitives.Util.alignZero;
+
+/**
+ * Generator of the rays of a camera through the pixels of its view plane. <br/>
+ * The offsets of the pixel centers along the right vector (one per column) and along the up
+ * vector (one per row) are calculated once, so the center of a pixel is two table lookups and
+ * an addition instead of the ratios, the offsets and four points for every pixel and sample.
+ * The arithmetic is the one of the camera, so the rays are exactly the same. <br/>
+ * A generator is immutable, it belongs to one geometry of the camera and one resolution.
+ */
+final class RayGenerator {
+    private final Point p0;
+    private final Point centerPoint;
+    private final Vector vRight, vUp;
+    private final double width, height;
+    private final int nX, nY;
+    /**
+     * the width and the height of a pixel
+     */
+    final double rX, rY;
+    /**
+     * the upper left corner of the view plane
+     */
+    final Point corner;
+    /**
+     * the centers of the pixels of every column on the center row of the view plane
+     */
+    private final double[] columnX, columnY, columnZ;
+    /**
+     * the offsets of the rows from the center row, a row of a zero offset is not moved
+     */
+    private final double[] rowX, rowY, rowZ;
+    private final boolean[] centerRow;
+
+    /**
+     * Constructor - calculates the tables of the view plane
+     *
+     * @param p0          the location of the camera
+     * @param centerPoint the center of the view plane
+     * @param vRight      the right direction of the camera
+     * @param vUp         the up direction of the camera
+     * @param width       the width of the view plane
+     * @param height      the height of the view plane
+     * @param nX          the amount of pixel columns
+     * @param nY          the amount of pixel rows
+     */
+    RayGenerator(Point p0, Point centerPoint, Vector vRight, Vector vUp, double width, double height,
+                 int nX, int nY) {
+        this.p0 = p0;
+        this.centerPoint = centerPoint;
+        this.vRight = vRight;
+        this.vUp = vUp;
+        this.width = width;
+        this.height = height;
+        this.nX = nX;
+        this.nY = nY;
+        // the ratio Ry = h/Ny, the height of the pixel, and the ratio Rx = w/Nx, the width of the pixel
+        rY = alignZero(height / nY);
+        rX = alignZero(width / nX);
+        corner = centerPoint.add(vRight.scale(-width / 2)).add(vUp.scale(height / 2));
+
+        columnX = new double[nX];
+        columnY = new double[nX];
+        columnZ = new double[nX];
+        for (int j = 0; j < nX; ++j) {
+            // Xj = (j - (Nx -1)/2) * Rx
+            double xJ = alignZero((j - ((nX - 1d) / 2d)) * rX);
+            columnX[j] = xJ == 0 ? centerPoint.getX() : centerPoint.getX() + vRight.getX() * xJ;
+            columnY[j] = xJ == 0 ? centerPoint.getY() : centerPoint.getY() + vRight.getY() * xJ;
+            columnZ[j] = xJ == 0 ? centerPoint.getZ() : centerPoint.getZ() + vRight.getZ() * xJ;
+        }
+
+        rowX = new double[nY];
+        rowY = new double[nY];
+        rowZ = new double[nY];
+        centerRow = new boolean[nY];
+        for (int i = 0; i < nY; ++i) {
+            // Yi = -(i - (Ny - 1)/2) * Ry
+            double yI = alignZero(-(i - ((nY - 1d) / 2d)) * rY);
+            centerRow[i] = yI == 0;
+            rowX[i] = vUp.getX() * yI;
+            rowY[i] = vUp.getY() * yI;
+            rowZ[i] = vUp.getZ() * yI;
+        }
+    }
+
+    /**
+     * whether the generator belongs to the current geometry of a camera and to a resolution,
+     * the points and the vectors of a camera are immutable so they are compared by reference
+     *
+     * @param p0          the location of the camera
+     * @param centerPoint the center of the view plane
+     * @param vRight      the right direction of the camera
+     * @param vUp         the up direction of the camera
+     * @param width       the width of the view plane
+     * @param height      the height of the view plane
+     * @param nX          the amount of pixel columns
+     * @param nY          the amount of pixel rows
+     * @return true if the generator can be used
+     */
+    boolean matches(Point p0, Point centerPoint, Vector vRight, Vector vUp, double width, double height,
+                    int nX, int nY) {
+        return this.p0 == p0 && this.centerPoint == centerPoint && this.vRight == vRight && this.vUp == vUp
+                && this.width == width && this.height == height && this.nX == nX && this.nY == nY;
+    }
+
+    /**
+     * get the center point of a pixel
+     *
+     * @param j      the column of the pixel
+     * @param i      the row of the pixel
+     * @param center the vector for the center
+     * @return the center vector
+     */
+    Vec3 pixelCenter(int j, int i, Vec3 center) {
+        if (centerRow[i])
+            return center.set(columnX[j], columnY[j], columnZ[j]);
+        return center.set(columnX[j] + rowX[i], columnY[j] + rowY[i], columnZ[j] + rowZ[i]);
+    }
+
+    /**
+     * construct the ray through the center of a pixel
+     *
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     * @return the ray
+     */
+    Ray rayThroughPixel(int j, int i) {
+        double x = columnX[j], y = columnY[j], z = columnZ[j];
+        if (!centerRow[i]) {
+            x += rowX[i];
+            y += rowY[i];
+            z += rowZ[i];
+        }
+        return new Ray(p0, new Vector(x - p0.getX(), y - p0.getY(), z - p0.getZ()));
+    }
+}
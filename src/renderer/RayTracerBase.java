@@ -3,6 +3,7 @@ package renderer;
 import primitives.Color;
 import primitives.Point;
 import primitives.Ray;
+import primitives.RayPacket;
 import primitives.Vector;
 import scene.Scene;
 
@@ -24,6 +25,14 @@ public abstract class RayTracerBase {
         this.scene = scene;
     }
 
+    /**
+     * prepares the scene for tracing, it is called once before the rendering starts
+     * (e.g. builds the acceleration structure of the geometries)
+     */
+    public void prepare() {
+        scene.geometries.buildBVH();
+    }
+
     /**
      * the abstract method traces the ray to the point it hits in the scene,
      * it considers the different factors (ambient light, emmision light, light sources exet.)
@@ -41,6 +50,20 @@ public abstract class RayTracerBase {
      */
     public abstract Color TraceRays(List<Ray> rays);
 
+    /**
+     * Trace a packet of coherent rays (e.g. the primary rays of neighbouring pixels) together.
+     * The default implementation traces them one by one
+     *
+     * @param packet the rays
+     * @return the color of every ray of the packet
+     */
+    public Color[] TracePacket(RayPacket packet) {
+        Color[] colors = new Color[packet.size];
+        for (int i = 0; i < packet.size; ++i)
+            colors[i] = TraceRay(packet.getRay(i));
+        return colors;
+    }
+
     /**
      * Checks the color of the pixel with the help of individual rays and averages between
      * them and only if necessary continues to send beams of rays in recursion
@@ -1,6 +1,7 @@
 package renderer;
 
 import geometries.Intersectable.GeoPoint;
+import lighting.LightHierarchy;
 import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
@@ -8,6 +9,7 @@ import scene.Scene;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static java.awt.Color.BLACK;
 import static primitives.Util.alignZero;
@@ -23,10 +25,86 @@ public class RayTracerBasic extends RayTracerBase {
     private static final int MAX_CALC_COLOR_LEVEL = 10;
     private static final double MIN_CALC_COLOR_K = 0.001;
     private static final Double3 INITIAL_K = new Double3(1d);
+    /**
+     * the default amount of secondary glossy rays of a primary ray
+     */
+    private static final int DEFAULT_RAY_BUDGET = 1000;
 
     private int glossinessRaysNum = 36;
+    /**
+     * the least amount of rays of a beam with a grid - the central ray and 2x2 rays around it
+     */
+    private static final int MIN_GRID_BEAM = 5;
     private double distanceGrid = 25;
     private double sizeGrid = 9; //4
+    private Sampler sampler = null;
+    private int rayBudget = DEFAULT_RAY_BUDGET;
+    /**
+     * the path weight below which the russian roulette may terminate a path, 0 - no roulette
+     */
+    private double rouletteThreshold = 0;
+    private long rouletteSeed = 0;
+    /**
+     * the smallest intensity of a light that can be seen, 0 - all the lights are used everywhere
+     */
+    private double lightThreshold = 0;
+    /**
+     * the hierarchy of the influence of the lights, built by {@link #prepare()} when there is a threshold
+     */
+    private LightHierarchy lightHierarchy = null;
+
+    /**
+     * The state of a primary ray that is shared by all its secondary rays - the amount of
+     * glossy rays that are left to it, and the random numbers of its russian roulette
+     */
+    static final class PrimaryPath {
+        private int remaining;
+        /**
+         * the random numbers of the russian roulette, null if there is no roulette
+         */
+        private final SplittableRandom random;
+
+        /**
+         * Constructor of the state of a primary ray
+         *
+         * @param remaining the amount of glossy rays
+         * @param random    the random numbers of the russian roulette, null for no roulette
+         */
+        PrimaryPath(int remaining, SplittableRandom random) {
+            this.remaining = remaining;
+            this.random = random;
+        }
+
+        /**
+         * the amount of rays that a beam may have, the central ray of a beam is always given.
+         * Nothing is taken from the budget until the beam is built, see {@link #spend(int)}
+         *
+         * @param wanted the amount of rays that the beam needs
+         * @return the amount of rays of the beam, at least 1
+         */
+        int available(int wanted) {
+            return Math.max(0, Math.min(wanted - 1, remaining)) + 1;
+        }
+
+        /**
+         * take the rays of a beam that was built from the budget, the grid of a beam may have
+         * less rays than were available and some of them may be on the wrong side of the surface
+         *
+         * @param rays the amount of rays of the beam, with its central ray
+         */
+        void spend(int rays) {
+            remaining -= rays - 1;
+        }
+
+        /**
+         * get the amount of glossy rays that are left
+         *
+         * @return amount of rays
+         */
+        int getRemaining() {
+            return remaining;
+        }
+    }
 
     /**
      * ctor - initializing the scene parameter
@@ -42,6 +120,84 @@ public class RayTracerBasic extends RayTracerBase {
         this.distanceGrid = distanceGrid;
     }
 
+    /**
+     * set the budget of glossy rays of a primary ray. The beams of glossy reflection and
+     * refraction get less rays as the remaining weight of the path (k) and the depth of the
+     * recursion grow, and all the beams of a primary ray (at all the levels) share its budget,
+     * so a deep glossy scene takes a bounded time. When the budget is used the beams have only
+     * their central ray
+     *
+     * @param rayBudget the amount of glossy rays of a primary ray
+     * @return the ray tracer
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public RayTracerBasic setRayBudget(int rayBudget) {
+        if (rayBudget < 0)
+            throw new IllegalArgumentException("The ray budget can't be negative");
+        this.rayBudget = rayBudget;
+        return this;
+    }
+
+    /**
+     * set the russian roulette - a reflected or refracted path whose weight (the largest
+     * component of its k) is below the threshold goes on with the probability weight/threshold,
+     * and the color of a path that goes on is divided by that probability, so the image stays
+     * the same on average while the weak paths of the deep levels are mostly not traced.
+     * The random numbers of every primary ray are taken from the seed and the ray, so the same
+     * seed gives the same image in any order of the pixels and threads
+     *
+     * @param threshold the weight below which a path may be terminated, 0 turns the roulette off
+     * @param seed      the seed of the random numbers
+     * @return the ray tracer
+     * @throws IllegalArgumentException if the threshold is not in [0,1]
+     */
+    public RayTracerBasic setRussianRoulette(double threshold, long seed) {
+        if (threshold < 0 || threshold > 1)
+            throw new IllegalArgumentException("The threshold of the russian roulette must be in [0,1]");
+        this.rouletteThreshold = threshold;
+        this.rouletteSeed = seed;
+        return this;
+    }
+
+    /**
+     * set the threshold of the lights - a light whose intensity at a point is below it in every
+     * component is not used there. A point light or a spot light reaches only the distance where
+     * its attenuation brings it below the threshold, and the lights are kept in a hierarchy of
+     * their spheres of influence, so a shading point looks only at the lights that can reach it.
+     * A light that reaches a point but can't make a visible contribution by the material and the
+     * weight of the path doesn't send the shadow ray. The lights that are cut make the image a
+     * little darker, by about the threshold at most for each of them
+     *
+     * @param threshold the smallest intensity that can be seen (in the units of a color
+     *                  component, e.g. 0.5), 0 turns the culling off
+     * @return the ray tracer
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public RayTracerBasic setLightThreshold(double threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("The threshold of the lights can't be negative");
+        this.lightThreshold = threshold;
+        return this;
+    }
+
+    @Override
+    public void prepare() {
+        super.prepare();
+        lightHierarchy = lightThreshold > 0 ? new LightHierarchy(scene.lights, lightThreshold) : null;
+    }
+
+    /**
+     * set the sampler of the glossy reflection and refraction beams. Without a sampler
+     * the rays go through a regular grid
+     *
+     * @param sampler the sampler, for example {@link JitteredSampler} or {@link SobolSampler}
+     * @return the ray tracer
+     */
+    public RayTracerBasic setSampler(Sampler sampler) {
+        this.sampler = sampler;
+        return this;
+    }
+
     /**
      * Calculation of intensity of shadow on pixel's color with consideration of the transparency
      *
@@ -55,16 +211,8 @@ public class RayTracerBasic extends RayTracerBase {
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray lightRay = new Ray(geopoint.point, lightDirection, n); //build ray with delta
         double lightDistance = light.getDistance(geopoint.point);
-        var intersections = scene.geometries.findGeoIntersections(lightRay);
-        if (intersections == null) return Double3.ONE; //no intersections
-        Double3 ktr = new Double3(1d);
-        for (GeoPoint gp : intersections) {
-            if (alignZero(gp.point.distance(geopoint.point) - lightDistance) <= 0) {
-                ktr = ktr.product(gp.geometry.getMaterial().getkT()); //the more transparency the less shadow
-                if (ktr.lowerThan(MIN_CALC_COLOR_K)) return Double3.ZERO;
-            }
-        }
-        return ktr;
+        // stops as soon as the geometries between the point and the light leave too little light
+        return scene.geometries.findTransmittance(lightRay, lightDistance, MIN_CALC_COLOR_K);
     }
 
     /**
@@ -77,7 +225,7 @@ public class RayTracerBasic extends RayTracerBase {
      * @return the color at the point
      */
     private Color calcColor(GeoPoint geoPoint, Ray ray) {
-        return calcColor(geoPoint, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K)
+        return calcColor(geoPoint, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K, new PrimaryPath(rayBudget, roulette(ray)))
                 .add(scene.ambientLight.getIntensity());
     }
 
@@ -88,13 +236,14 @@ public class RayTracerBasic extends RayTracerBase {
      * @param ray      the ray that goes out of the camera
      * @param level    the level of the recursion
      * @param k        Represents influencing factors of transparency and reflection
+     * @param path     the state of the primary ray
      * @return the color at the point
      */
-    private Color calcColor(GeoPoint geoPoint, Ray ray, int level, Double3 k) {
+    private Color calcColor(GeoPoint geoPoint, Ray ray, int level, Double3 k, PrimaryPath path) {
         Color color = geoPoint.geometry.getEmission()
                 .add(calcLocalEffects(geoPoint, ray, k));
 
-        return 1 == level ? color : color.add(calcGlobalEffects(geoPoint, ray, level, k));
+        return 1 == level ? color : color.add(calcGlobalEffects(geoPoint, ray, level, k, path));
     }
 
     /**
@@ -107,19 +256,26 @@ public class RayTracerBasic extends RayTracerBase {
     private Color calcLocalEffects(GeoPoint gp, Ray ray, Double3 k) {
         Color color = Color.BLACK;
         Vector v = ray.getDir();
-        Vector n = gp.geometry.getNormal(gp.point); //normal to point
+        Vector n = gp.getNormal(); //normal to point
         double nv = alignZero(n.dotProduct(v));
         if (nv == 0) //vectors orthogonal - no effect
             return color;
-        Material material = gp.geometry.getMaterial();
+        Material material = gp.getMaterial();
+        // the largest part of the intensity of a light that can reach the image from this point
+        double weight = lightThreshold == 0 ? 0 : max(k) * (max(material.kD) + max(material.kS));
 
-        for (LightSource lightSource : scene.lights) { //sum of all effects of all lights on scene
+        List<LightSource> lights = lightHierarchy == null ? scene.lights : lightHierarchy.findLights(gp.point);
+        for (LightSource lightSource : lights) { //sum of all effects of all lights on scene
             Vector l = lightSource.getL(gp.point);
             double nl = alignZero(n.dotProduct(l));
             if (nl * nv > 0) { // sign(nl) == sing(nv)
+                Color intensity = lightSource.getIntensity(gp.point);
+                // the contribution of the light can't be seen, the shadow ray is not needed
+                if (lightThreshold > 0 && max(intensity) * weight < lightThreshold)
+                    continue;
                 Double3 ktr = transparency(gp, lightSource, l, n); //intensity of shadow
                 if (!ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) {
-                    Color iL = lightSource.getIntensity(gp.point).scale(ktr);
+                    Color iL = intensity.scale(ktr);
                     color = color.add(iL.scale(calcDiffusive(material, nl)), iL.scale(calcSpecular(material, n, l, v)));
                 }
             }
@@ -127,6 +283,20 @@ public class RayTracerBasic extends RayTracerBase {
         return color;
     }
 
+    /**
+     * the largest component of a triad
+     */
+    private static double max(Double3 d) {
+        return Math.max(d.d1, Math.max(d.d2, d.d3));
+    }
+
+    /**
+     * the largest component of a color
+     */
+    private static double max(Color color) {
+        return Math.max(color.getR(), Math.max(color.getG(), color.getB()));
+    }
+
     /**
      * Computer influences factors of transparency and reflection
      *
@@ -134,34 +304,40 @@ public class RayTracerBasic extends RayTracerBase {
      * @param ray   the ray that goes out of the camera
      * @param level the level of the recursion
      * @param k     Represents influencing factors of transparency and reflection
+     * @param path   the state of the primary ray
      * @return the color with the transparency and reflection
      */
-    private Color calcGlobalEffects(GeoPoint gp, Ray ray, int level, Double3 k) {
+    private Color calcGlobalEffects(GeoPoint gp, Ray ray, int level, Double3 k, PrimaryPath path) {
         Color color = Color.BLACK;
-        Material material = gp.geometry.getMaterial();
+        Material material = gp.getMaterial();
         Double3 kr = material.getkR();
         Double3 kkr = k.product(kr); //in each recursive iteration the impact of the reflection decreases
-        Vector n = gp.geometry.getNormal(gp.point);
-        if (!kkr.lowerThan(MIN_CALC_COLOR_K)) {
-            List<Ray> reflectedRays = constructReflectedRays(gp, ray, material.getGlossy());
+        Vector n = gp.getNormal();
+        double survival;
+        if (!kkr.lowerThan(MIN_CALC_COLOR_K) && (survival = survival(kkr, path)) > 0) {
+            kr = kr.reduce(survival);
+            kkr = kkr.reduce(survival);
+            List<Ray> reflectedRays = constructReflectedRays(gp, ray, kkr, level, path);
             primitives.Color tempColor1 = primitives.Color.BLACK;
             // each ray
             for (Ray reflectedRay : reflectedRays) {
                 GeoPoint reflectedPoint = findClosestIntersection(reflectedRay);
-                tempColor1 = tempColor1.add(reflectedPoint == null ? primitives.Color.BLACK : calcColor(reflectedPoint, reflectedRay, level - 1, kkr).scale(kr));
+                tempColor1 = tempColor1.add(reflectedPoint == null ? primitives.Color.BLACK : calcColor(reflectedPoint, reflectedRay, level - 1, kkr, path).scale(kr));
             }
 
             color = color.add(tempColor1.reduce(reflectedRays.size()));
         }
         Double3 kt = material.getkT();
         Double3 kkt = k.product(kt); //in each recursive iteration the impact of the refraction decreases
-        if (!kkt.lowerThan(MIN_CALC_COLOR_K)) {
-            List<Ray> refractedRays = constructRefractedRays(gp, ray, n);
+        if (!kkt.lowerThan(MIN_CALC_COLOR_K) && (survival = survival(kkt, path)) > 0) {
+            kt = kt.reduce(survival);
+            kkt = kkt.reduce(survival);
+            List<Ray> refractedRays = constructRefractedRays(gp, ray, n, kkt, level, path);
             primitives.Color tempColor2 = primitives.Color.BLACK;
             //calculate for each ray
             for (Ray refractedRay : refractedRays) {
                 GeoPoint refractedPoint = findClosestIntersection(refractedRay);
-                tempColor2 = tempColor2.add(refractedPoint == null ? primitives.Color.BLACK : calcColor(refractedPoint, refractedRay, level - 1, kkt).scale(kt));
+                tempColor2 = tempColor2.add(refractedPoint == null ? primitives.Color.BLACK : calcColor(refractedPoint, refractedRay, level - 1, kkt, path).scale(kt));
             }
 
             color = color.add(tempColor2.reduce(refractedRays.size()));
@@ -175,16 +351,19 @@ public class RayTracerBasic extends RayTracerBase {
      *
      * @param geoPoint the point where the ray hit from the camera
      * @param ray      the ray from the camera
+     * @param kk       the weight of the path after the beam
+     * @param level    the level of the recursion
+     * @param path     the state of the primary ray
      * @return a reflection ray
      */
-    private List<Ray> constructReflectedRays(GeoPoint geoPoint, Ray ray, double Glossy) {
+    private List<Ray> constructReflectedRays(GeoPoint geoPoint, Ray ray, Double3 kk, int level, PrimaryPath path) {
         Vector v = ray.getDir();
-        Vector n = geoPoint.geometry.getNormal(geoPoint.point);
+        Vector n = geoPoint.getNormal();
         double nv = alignZero(v.dotProduct(n));
         // r = v - 2*(v * n) * n
-        Vector r = v.subtract(n.scale(2d * nv)).normalize();
+        Vector r = new Vec3().set(v).addScaled(n, -2d * nv).normalize().toVector();
 
-        return raysGrid(new Ray(geoPoint.point, r, n), 1, Glossy, n);
+        return glossyBeam(new Ray(geoPoint.point, r, n), 1, geoPoint.getMaterial().getGlossy(), n, kk, level, path);
     }
 
     /**
@@ -194,10 +373,88 @@ public class RayTracerBasic extends RayTracerBase {
      *
      * @param geoPoint the point where the ray hit from the camera
      * @param inRay    the ray from the camera
+     * @param n        the normal at the point
+     * @param kk       the weight of the path after the beam
+     * @param level    the level of the recursion
+     * @param path     the state of the primary ray
      * @return transparency ray
      */
-    private List<Ray> constructRefractedRays(GeoPoint geoPoint, Ray inRay, Vector n) {
-        return raysGrid(new Ray(geoPoint.point, inRay.getDir(), n), -1, geoPoint.geometry.getMaterial().getGlossy(), n);
+    private List<Ray> constructRefractedRays(GeoPoint geoPoint, Ray inRay, Vector n, Double3 kk, int level,
+                                             PrimaryPath path) {
+        return glossyBeam(new Ray(geoPoint.point, inRay.getDir(), n), -1, geoPoint.getMaterial().getGlossy(), n,
+                kk, level, path);
+    }
+
+    /**
+     * Building a glossy beam of the size of {@link #beamSize(double, Double3, int, PrimaryPath)}, only
+     * the rays that the beam really has are taken from the budget of the primary ray
+     *
+     * @param ray       the central ray of the beam
+     * @param direction the side of the surface of the rays, as in raysGrid
+     * @param glossy    the amount of gloss
+     * @param n         normal
+     * @param kk        the weight of the path after the beam
+     * @param level     the level of the recursion
+     * @param path      the state of the primary ray
+     * @return Beam of rays
+     */
+    List<Ray> glossyBeam(Ray ray, int direction, double glossy, Vector n, Double3 kk, int level, PrimaryPath path) {
+        List<Ray> rays = raysGrid(ray, direction, glossy, n, beamSize(glossy, kk, level, path));
+        path.spend(rays.size());
+        return rays;
+    }
+
+    /**
+     * the random numbers of the russian roulette of a primary ray
+     *
+     * @param ray the primary ray
+     * @return the random numbers, null if there is no roulette
+     */
+    private SplittableRandom roulette(Ray ray) {
+        if (rouletteThreshold == 0)
+            return null;
+        Vector dir = ray.getDir();
+        long seed = rouletteSeed;
+        seed = seed * 31 + Double.doubleToLongBits(dir.getX());
+        seed = seed * 31 + Double.doubleToLongBits(dir.getY());
+        seed = seed * 31 + Double.doubleToLongBits(dir.getZ());
+        return new SplittableRandom(Sampler.mix(seed));
+    }
+
+    /**
+     * play the russian roulette of a reflected or refracted path
+     *
+     * @param kk   the weight of the path
+     * @param path the state of the primary ray
+     * @return the probability that the path goes on, 0 if it is terminated
+     */
+    private double survival(Double3 kk, PrimaryPath path) {
+        if (path.random == null)
+            return 1;
+        double weight = Math.max(kk.d1, Math.max(kk.d2, kk.d3));
+        if (weight >= rouletteThreshold)
+            return 1;
+        double probability = weight / rouletteThreshold;
+        return path.random.nextDouble() < probability ? probability : 0;
+    }
+
+    /**
+     * The amount of rays of a glossy beam - the full beam is scaled by the weight of the path
+     * (its largest component) and halved at every level of the recursion, and it is limited
+     * by the budget of the primary ray
+     *
+     * @param glossy the amount of gloss, a beam without gloss is a single ray
+     * @param kk     the weight of the path after the beam
+     * @param level  the level of the recursion
+     * @param path   the state of the primary ray
+     * @return the amount of rays
+     */
+    private int beamSize(double glossy, Double3 kk, int level, PrimaryPath path) {
+        if (isZero(glossy))
+            return 1;
+        double weight = Math.min(1, Math.max(kk.d1, Math.max(kk.d2, kk.d3)));
+        int depth = MAX_CALC_COLOR_LEVEL - level;
+        return path.available((int) Math.ceil(glossinessRaysNum * weight / (1 << depth)));
     }
 
     /**
@@ -210,8 +467,9 @@ public class RayTracerBasic extends RayTracerBase {
      * @return Color - the calculated color of specular light component
      */
     private Double3 calcSpecular(Material material, Vector n, Vector l, Vector v) {
-        Vector r = l.subtract(n.scale(2 * l.dotProduct(n))).normalize();
-        return material.kS.scale(Math.pow(Math.max(0, v.scale(-1).dotProduct(r)), material.nShininess));
+        // r = l - 2*(l * n) * n
+        Vec3 r = new Vec3().set(l).addScaled(n, -2 * l.dotProduct(n)).normalize();
+        return material.kS.scale(Math.pow(Math.max(0, -r.dotProduct(v)), material.nShininess));
     }
 
     /**
@@ -257,6 +515,15 @@ public class RayTracerBasic extends RayTracerBase {
         return color.reduce(rays.size());
     }
 
+    @Override
+    public Color[] TracePacket(RayPacket packet) {
+        GeoPoint[] hits = scene.geometries.findClosestGeoIntersections(packet);
+        Color[] colors = new Color[packet.size];
+        for (int i = 0; i < packet.size; ++i)
+            colors[i] = hits[i] == null ? scene.background : calcColor(hits[i], packet.getRay(i));
+        return colors;
+    }
+
     /**
      * find closest intersection to the starting point of the ray
      *
@@ -268,8 +535,7 @@ public class RayTracerBasic extends RayTracerBase {
             return null;
         }
 
-        List<GeoPoint> points = scene.geometries.findGeoIntersections(ray);
-        return ray.findClosestGeoPoint(points);
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 
     /**
@@ -282,39 +548,104 @@ public class RayTracerBasic extends RayTracerBase {
      * @return Beam of rays
      */
     List<Ray> raysGrid(Ray ray, int direction, double glossy, Vector n) {
-        int numOfRowCol = isZero(glossy) ? 1 : (int) Math.ceil(Math.sqrt(glossinessRaysNum));
+        return raysGrid(ray, direction, glossy, n, glossinessRaysNum);
+    }
+
+    /**
+     * Building a beam of rays for transparency and reflection, a smaller beam
+     * covers the same square by a sparser grid. A beam of less than
+     * {@value #MIN_GRID_BEAM} rays is the central ray - the grid of 2 rows and columns has
+     * a single ray, at the center
+     *
+     * @param ray       The beam coming out of the camera
+     * @param direction the vector
+     * @param glossy    The amount of gloss
+     * @param n         normal
+     * @param count     The amount of rays
+     * @return Beam of rays
+     */
+    List<Ray> raysGrid(Ray ray, int direction, double glossy, Vector n, int count) {
+        int numOfRowCol = isZero(glossy) || count < MIN_GRID_BEAM ? 1 : (int) Math.ceil(Math.sqrt(count));
         if (numOfRowCol == 1) return List.of(ray);
-        Vector Vup;
-        double Ax = Math.abs(ray.getDir().getX()), Ay = Math.abs(ray.getDir().getY()), Az = Math.abs(ray.getDir().getZ());
-        if (Ax < Ay)
-            Vup = Ax < Az ? new Vector(0, -ray.getDir().getZ(), ray.getDir().getY()) :
-                    new Vector(-ray.getDir().getY(), ray.getDir().getX(), 0);
+        int fullRowCol = (int) Math.ceil(Math.sqrt(glossinessRaysNum));
+        Vector dir = ray.getDir();
+        Vec3 Vup = new Vec3();
+        double Ax = Math.abs(dir.getX()), Ay = Math.abs(dir.getY()), Az = Math.abs(dir.getZ());
+        if (Ax < Ay && Ax < Az)
+            Vup.set(0, -dir.getZ(), dir.getY());
+        else if (Ax >= Ay && Ay < Az)
+            Vup.set(dir.getZ(), 0, -dir.getX());
         else
-            Vup = Ay < Az ? new Vector(ray.getDir().getZ(), 0, -ray.getDir().getX()) :
-                    new Vector(-ray.getDir().getY(), ray.getDir().getX(), 0);
-        Vector Vright = Vup.crossProduct(ray.getDir()).normalize();
-        Point pc = ray.getPoint(distanceGrid);
+            Vup.set(-dir.getY(), dir.getX(), 0);
+        Vec3 Vright = new Vec3().setCross(Vup, new Vec3().set(dir)).normalize();
         double step = glossy / sizeGrid;
-        Point pij = pc.add(Vright.scale(numOfRowCol / 2 * -step)).add(Vup.scale(numOfRowCol / 2 * -step));
-        Vector tempRayVector;
-        Point Pij1;
+        if (sampler != null)
+            return sampledRays(ray, direction, n, Vright, Vup, Math.max(fullRowCol - 2, 1) * step, count);
+        // a sparser grid spreads over the same square as the full grid, around the center. The full grid
+        // keeps its original corner (numOfRowCol / 2 in integers), which is half a step off the
+        // center when the amount of rows is odd
+        step *= Math.max(fullRowCol - 2, 1) / (double) Math.max(numOfRowCol - 2, 1);
+        double half = numOfRowCol >= fullRowCol ? numOfRowCol / 2 : numOfRowCol / 2d;
+        // pij = pc - (Vright + Vup) * (half * step), pc is the center of the grid
+        Vec3 pij = new Vec3().set(ray.getPoint(distanceGrid))
+                .addScaled(Vright, half * -step).addScaled(Vup, half * -step);
+        Vec3 tempRayVector = new Vec3();
+        Point p0 = ray.getP0();
 
         List<Ray> rays = new ArrayList<>();
         rays.add(ray);
         for (int i = 1; i < numOfRowCol; i++) {
             for (int j = 1; j < numOfRowCol; j++) {
-                Pij1 = pij.add(Vright.scale(i * step)).add(Vup.scale(j * step));
-                tempRayVector = Pij1.subtract(ray.getP0());
-                if (n.dotProduct(tempRayVector) < 0 && direction == 1) //refraction
-                    rays.add(new Ray(ray.getP0(), tempRayVector));
-                if (n.dotProduct(tempRayVector) > 0 && direction == -1) //reflection
-                    rays.add(new Ray(ray.getP0(), tempRayVector));
+                tempRayVector.set(pij.x, pij.y, pij.z).addScaled(Vright, i * step).addScaled(Vup, j * step)
+                        .addScaled(p0, -1);
+                double nt = tempRayVector.dotProduct(n);
+                if (nt < 0 && direction == 1) //refraction
+                    rays.add(new Ray(p0, tempRayVector.toVector()));
+                if (nt > 0 && direction == -1) //reflection
+                    rays.add(new Ray(p0, tempRayVector.toVector()));
             }
         }
 
         return rays;
     }
 
+    /**
+     * Building a beam of rays through the points of the sampler in a square around the ray,
+     * every point of intersection has its own set of points
+     *
+     * @param ray       The central ray of the beam
+     * @param direction the vector
+     * @param n         normal
+     * @param Vright    the right direction of the square
+     * @param Vup       the up direction of the square
+     * @param size      the size of the square
+     * @param beam      The amount of rays
+     * @return Beam of rays
+     */
+    private List<Ray> sampledRays(Ray ray, int direction, Vector n, Vec3 Vright, Vec3 Vup, double size,
+                                  int beam) {
+        Point p0 = ray.getP0();
+        int count = beam - 1;
+        double[] points = new double[2 * count];
+        long seed = Double.doubleToLongBits(p0.getX());
+        seed = seed * 31 + Double.doubleToLongBits(p0.getY());
+        seed = seed * 31 + Double.doubleToLongBits(p0.getZ());
+        sampler.generate(count, seed, points);
+
+        Point center = ray.getPoint(distanceGrid);
+        Vec3 tempRayVector = new Vec3();
+        List<Ray> rays = new ArrayList<>(beam);
+        rays.add(ray);
+        for (int k = 0; k < 2 * count; k += 2) {
+            tempRayVector.set(center).addScaled(Vright, (points[k] - 0.5) * size)
+                    .addScaled(Vup, (points[k + 1] - 0.5) * size).addScaled(p0, -1);
+            double nt = tempRayVector.dotProduct(n);
+            if (nt < 0 && direction == 1 || nt > 0 && direction == -1)
+                rays.add(new Ray(p0, tempRayVector.toVector()));
+        }
+        return rays;
+    }
+
     /**
      * Checks the color of the pixel with the help of individual rays and averages between
      * them and only if necessary continues to send beams of rays in recursion
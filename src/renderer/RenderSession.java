@@ -0,0 +1,275 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RenderSession holds the state of a single rendering of an image - the split of
+ * the image into tiles and the progress of the rendering.<br/>
+ * On a fork-join pool the range of tiles is split recursively between the worker
+ * threads, and an idle worker steals the pending tiles of a busy one. On any other
+ * executor each worker takes the next tile from an atomic counter. Either way the
+ * threads never wait for a shared lock per pixel.
+ * Every rendering has its own session, so several images can be rendered at the
+ * same time on a shared pool.
+ */
+class RenderSession {
+    /**
+     * Renders a single pixel of the image
+     */
+    @FunctionalInterface
+    interface PixelRenderer {
+        /**
+         * render the pixel and write it into the image
+         *
+         * @param col the column of the pixel
+         * @param row the row of the pixel
+         */
+        void render(int col, int row);
+    }
+
+    /**
+     * Renders a block of neighbouring pixels of the image together
+     */
+    @FunctionalInterface
+    interface BlockRenderer {
+        /**
+         * render the pixels of the block and write them into the image
+         *
+         * @param col    the column of the top left pixel of the block
+         * @param row    the row of the top left pixel of the block
+         * @param width  the amount of pixel columns in the block
+         * @param height the amount of pixel rows in the block
+         */
+        void render(int col, int row, int width, int height);
+    }
+
+    private static final String PRINT_FORMAT = "%5.1f%%\r";
+    private static final Logger logger = Logger.getLogger("RenderSession");
+    /**
+     * the shared platform pools by their amount of threads, so repeated renderings reuse the threads
+     */
+    private static final Map<Integer, ForkJoinPool> sharedPools = new ConcurrentHashMap<>();
+    /**
+     * the shared virtual threads executor, null if the JVM doesn't support virtual threads
+     */
+    private static ExecutorService virtualThreads = null;
+    private static boolean virtualThreadsChecked = false;
+
+    private final int nX;
+    private final int nY;
+    private final int tileSize;
+    private final int tilesX;
+    private final int tilesCount;
+    private final long totalPixels;
+    private final long printInterval;
+    private final boolean print;
+    private final AtomicLong pixels = new AtomicLong();
+    private int lastPrinted = -1;
+
+    /**
+     * Constructor of the session
+     *
+     * @param nX       the amount of pixel columns
+     * @param nY       the amount of pixel rows
+     * @param tileSize the width and the height of a tile in pixels
+     * @param interval print time interval in seconds, 0 if printing is not required
+     * @throws IllegalArgumentException if the tile size is not positive
+     */
+    RenderSession(int nX, int nY, int tileSize, double interval) {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("Tile size must be positive");
+        this.nX = nX;
+        this.nY = nY;
+        this.tileSize = tileSize;
+        tilesX = (nX + tileSize - 1) / tileSize;
+        tilesCount = tilesX * ((nY + tileSize - 1) / tileSize);
+        totalPixels = (long) nX * nY;
+        printInterval = (long) (interval * 1000);
+        print = printInterval != 0;
+    }
+
+    /**
+     * get a shared pool of platform threads, the pools live as long as the program
+     * (their threads are daemon threads)
+     *
+     * @param parallelism the amount of threads in the pool
+     * @return the shared pool
+     */
+    static ForkJoinPool sharedPool(int parallelism) {
+        return sharedPools.computeIfAbsent(Math.max(parallelism, 1), ForkJoinPool::new);
+    }
+
+    /**
+     * get the shared executor that runs every task on a new virtual thread.
+     * Virtual threads exist since Java 21, so the executor is created by reflection
+     *
+     * @return the executor, or null if the JVM doesn't support virtual threads
+     */
+    static synchronized ExecutorService virtualThreadsExecutor() {
+        if (!virtualThreadsChecked) {
+            virtualThreadsChecked = true;
+            try {
+                virtualThreads = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.log(Level.WARNING, "Virtual threads are not supported by this JVM", e);
+            }
+        }
+        return virtualThreads;
+    }
+
+    /**
+     * get the amount of pixels that were rendered so far
+     *
+     * @return the amount of rendered pixels
+     */
+    long getRenderedPixels() {
+        return pixels.get();
+    }
+
+    /**
+     * Renders all the tiles on the executor and waits for them to be done while
+     * printing the progress percentage
+     *
+     * @param executor the executor of the worker threads, it may be shared with other sessions
+     * @param workers  the amount of workers to submit if the executor is not a fork-join pool
+     * @param renderer renders each pixel
+     * @throws IllegalStateException if the rendering failed or the waiting thread was interrupted
+     */
+    void render(ExecutorService executor, int workers, PixelRenderer renderer) {
+        render(executor, workers, (col, row, width, height) -> renderer.render(col, row), 1, 1);
+    }
+
+    /**
+     * Renders all the tiles on the executor block by block. A tile is split into blocks of
+     * the given size from its top left corner, the blocks at the right and the bottom edges
+     * of the tile are cut by the edges
+     *
+     * @param executor    the executor of the worker threads, it may be shared with other sessions
+     * @param workers     the amount of workers to submit if the executor is not a fork-join pool
+     * @param renderer    renders each block
+     * @param blockWidth  the amount of pixel columns in a block
+     * @param blockHeight the amount of pixel rows in a block
+     * @throws IllegalStateException if the rendering failed or the waiting thread was interrupted
+     */
+    void render(ExecutorService executor, int workers, BlockRenderer renderer, int blockWidth, int blockHeight) {
+        List<Future<?>> tasks = new ArrayList<>();
+        if (executor instanceof ForkJoinPool pool) {
+            tasks.add(pool.submit(new TilesTask(renderer, blockWidth, blockHeight, 0, tilesCount)));
+        } else {
+            AtomicInteger nextTile = new AtomicInteger();
+            Runnable worker = () -> {
+                for (int tile = nextTile.getAndIncrement(); tile < tilesCount; tile = nextTile.getAndIncrement())
+                    renderTile(renderer, blockWidth, blockHeight, tile);
+            };
+            for (int i = Math.min(Math.max(workers, 1), Math.max(tilesCount, 1)); i > 0; --i)
+                tasks.add(executor.submit(worker));
+        }
+        if (print)
+            System.out.printf(PRINT_FORMAT, 0d);
+
+        try {
+            for (Future<?> task : tasks) {
+                while (true) {
+                    try {
+                        task.get(print ? printInterval : Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException ignore) {
+                        printProgress();
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            tasks.forEach(task -> task.cancel(true));
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        } catch (InterruptedException e) {
+            tasks.forEach(task -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        }
+        if (print)
+            System.out.println("100.0%");
+    }
+
+    /**
+     * Print the progress percentage if it changed
+     */
+    private void printProgress() {
+        int percentage = (int) (1000l * pixels.get() / totalPixels);
+        if (lastPrinted != percentage) {
+            lastPrinted = percentage;
+            System.out.println(percentage / 10d + "%");
+        }
+    }
+
+    /**
+     * Renders one tile of the image row of blocks by row of blocks
+     *
+     * @param renderer    renders each block
+     * @param blockWidth  the amount of pixel columns in a block
+     * @param blockHeight the amount of pixel rows in a block
+     * @param tile        the index of the tile
+     */
+    private void renderTile(BlockRenderer renderer, int blockWidth, int blockHeight, int tile) {
+        int col0 = (tile % tilesX) * tileSize;
+        int row0 = (tile / tilesX) * tileSize;
+        int col1 = Math.min(col0 + tileSize, nX);
+        int row1 = Math.min(row0 + tileSize, nY);
+        for (int row = row0; row < row1; row += blockHeight)
+            for (int col = col0; col < col1; col += blockWidth)
+                renderer.render(col, row, Math.min(blockWidth, col1 - col), Math.min(blockHeight, row1 - row));
+        pixels.addAndGet((long) (col1 - col0) * (row1 - row0));
+    }
+
+    /**
+     * A range of tiles, it is split in halves until a single tile is left.
+     * The second half is forked so other workers can steal it.
+     */
+    private class TilesTask extends RecursiveAction {
+        /**
+         * the tasks are never serialized, the version only satisfies Serializable of ForkJoinTask
+         */
+        private static final long serialVersionUID = 1L;
+        private final BlockRenderer renderer;
+        private final int blockWidth;
+        private final int blockHeight;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructor of the task
+         *
+         * @param renderer    renders each block
+         * @param blockWidth  the amount of pixel columns in a block
+         * @param blockHeight the amount of pixel rows in a block
+         * @param from        first tile (included)
+         * @param to          last tile (excluded)
+         */
+        TilesTask(BlockRenderer renderer, int blockWidth, int blockHeight, int from, int to) {
+            this.renderer = renderer;
+            this.blockWidth = blockWidth;
+            this.blockHeight = blockHeight;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from)
+                    renderTile(renderer, blockWidth, blockHeight, from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TilesTask(renderer, blockWidth, blockHeight, from, mid),
+                    new TilesTask(renderer, blockWidth, blockHeight, mid, to));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package renderer;
+
+/**
+ * Generator of sample points in the unit square, for the rays of a pixel (anti-aliasing)
+ * or of a beam (glossy reflection and refraction). <br/>
+ * The points of a set are spread evenly over the square, so less rays give the same
+ * quality as a regular grid. A set is chosen by a seed - the same seed always gives the
+ * same points, so the rendering is repeatable and needs no shared random state between
+ * the threads, and neighbouring pixels with different seeds don't share a pattern.
+ */
+public interface Sampler {
+    /**
+     * fill a set of points in the unit square [0,1)x[0,1)
+     *
+     * @param count  amount of points
+     * @param seed   the seed of the set, for example the index of the pixel
+     * @param points the array to fill with the x and y of every point - 2 * count values
+     */
+    void generate(int count, long seed, double[] points);
+
+    /**
+     * whether the sets of the sampler are progressive - every beginning of a set is spread
+     * evenly over the square by itself, so a sampling that stops early is not biased
+     *
+     * @return true if a set can be cut, false by default
+     */
+    default boolean isProgressive() {
+        return false;
+    }
+
+    /**
+     * mix the bits of a seed (SplitMix64 finalizer), the result is a good random number
+     * even for consecutive seeds
+     *
+     * @param seed the seed
+     * @return the mixed bits
+     */
+    static long mix(long seed) {
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * a random number in [0,1) from mixed bits
+     *
+     * @param bits the bits, the 53 high bits are used
+     * @return the number
+     */
+    static double toUnit(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+}
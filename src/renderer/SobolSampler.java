@@ -0,0 +1,46 @@
+package renderer;
+
+/**
+ * Low discrepancy sampler by the first two dimensions of the Sobol sequence. <br/>
+ * The first dimension is the van der Corput sequence and the second is the Sobol dimension
+ * of the polynomial x + 1, together they are a (0,2) sequence: the first 2^m points have
+ * exactly one point in every cell of any 2^m grid of equal rectangles. Every set is scrambled
+ * by XOR with random bits of the seed, which keeps that property.
+ */
+public class SobolSampler implements Sampler {
+    @Override
+    public boolean isProgressive() {
+        return true;
+    }
+
+    @Override
+    public void generate(int count, long seed, double[] points) {
+        long bits = Sampler.mix(seed);
+        int scrambleX = (int) bits, scrambleY = (int) (bits >>> 32);
+        for (int i = 0, k = 0; i < count; ++i) {
+            points[k++] = toUnit(Integer.reverse(i) ^ scrambleX);
+            points[k++] = toUnit(sobol2(i) ^ scrambleY);
+        }
+    }
+
+    /**
+     * the second dimension of the Sobol sequence
+     *
+     * @param index the index of the point
+     * @return the 32 bits of the coordinate
+     */
+    static int sobol2(int index) {
+        int result = 0;
+        for (int v = 1 << 31; index != 0; index >>>= 1, v ^= v >>> 1)
+            if ((index & 1) != 0)
+                result ^= v;
+        return result;
+    }
+
+    /**
+     * a coordinate in [0,1) from its 32 bits
+     */
+    private static double toUnit(int bits) {
+        return (bits & 0xffffffffL) * 0x1.0p-32;
+    }
+}
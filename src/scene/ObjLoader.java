@@ -0,0 +1,320 @@
+package scene;
+
+import geometries.Mesh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Loader of Wavefront OBJ models into a {@link Mesh}. <br/>
+ * The file is read as a stream of bytes and tokenized by hand, straight into growing
+ * primitive arrays of vertices and indices, so no String or Point object is created
+ * per vertex or face and the memory is only the memory of the mesh itself.
+ * Only the positions ("v") and the faces ("f") are read, faces of more than three
+ * vertices are split into a fan of triangles, and negative (relative) indices are supported.
+ * The other statements (texture coordinates, normals, groups, materials...) are skipped.
+ */
+public final class ObjLoader {
+    /**
+     * size of the read buffer
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * the powers of 10 that are exact in a double
+     */
+    private static final double[] POWERS_OF_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private int line = 1;
+
+    private float[] vertices = new float[3 * 1024];
+    private int verticesSize = 0;
+    private int[] indices = new int[3 * 1024];
+    private int indicesSize = 0;
+    private int[] corners = new int[8];
+
+    /**
+     * Constructor of a loader of one stream
+     *
+     * @param in the stream of the OBJ text
+     */
+    private ObjLoader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * load an OBJ file
+     *
+     * @param path the path of the file
+     * @return the mesh of the file
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is not a correct OBJ file
+     */
+    public static Mesh load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return load(in);
+        }
+    }
+
+    /**
+     * load an OBJ model from a stream, the stream is not closed
+     *
+     * @param in the stream of the OBJ text
+     * @return the mesh of the model
+     * @throws IOException              if the stream can't be read
+     * @throws IllegalArgumentException if the text is not a correct OBJ model
+     */
+    public static Mesh load(InputStream in) throws IOException {
+        return new ObjLoader(in).parse();
+    }
+
+    /**
+     * parse all the statements of the stream
+     *
+     * @return the mesh
+     * @throws IOException if the stream can't be read
+     */
+    private Mesh parse() throws IOException {
+        while (true) {
+            skipSpaces();
+            int c = read();
+            if (c < 0)
+                break;
+            if (c == '\n') {
+                ++line;
+                continue;
+            }
+            if (c == 'v' && isSpace(peek()))
+                parseVertex();
+            else if (c == 'f' && isSpace(peek()))
+                parseFace();
+            skipLine();
+        }
+        return new Mesh(Arrays.copyOf(vertices, verticesSize), Arrays.copyOf(indices, indicesSize));
+    }
+
+    /**
+     * parse the coordinates of a vertex statement, the rest of the line is skipped by the caller
+     *
+     * @throws IOException if the stream can't be read
+     */
+    private void parseVertex() throws IOException {
+        if (verticesSize + 3 > vertices.length)
+            vertices = Arrays.copyOf(vertices, vertices.length * 2);
+        for (int k = 0; k < 3; ++k)
+            vertices[verticesSize + k] = (float) parseNumber();
+        verticesSize += 3;
+    }
+
+    /**
+     * parse the vertices of a face statement and split it into triangles
+     *
+     * @throws IOException if the stream can't be read
+     */
+    private void parseFace() throws IOException {
+        int vertexCount = verticesSize / 3;
+        int count = 0;
+        while (true) {
+            skipSpaces();
+            int c = peek();
+            if (c < 0 || c == '\n' || c == '\r' || c == '#')
+                break;
+            int index = parseInt();
+            // the texture and the normal indices (v/vt/vn) are skipped
+            while ((c = peek()) >= 0 && !isSpace(c) && c != '\n' && c != '\r')
+                read();
+            if (index > 0)
+                --index;
+            else if (index < 0)
+                index += vertexCount;
+            else
+                throw error("Face index can't be 0");
+            if (count == corners.length)
+                corners = Arrays.copyOf(corners, count * 2);
+            corners[count++] = index;
+        }
+        if (count < 3)
+            throw error("A face must have at least 3 vertices");
+        int triangles = count - 2;
+        if (indicesSize + triangles * 3 > indices.length)
+            indices = Arrays.copyOf(indices, Math.max(indices.length * 2, indicesSize + triangles * 3));
+        for (int i = 1; i <= triangles; ++i) {
+            indices[indicesSize++] = corners[0];
+            indices[indicesSize++] = corners[i];
+            indices[indicesSize++] = corners[i + 1];
+        }
+    }
+
+    /**
+     * parse a decimal number (with an optional fraction and exponent)
+     *
+     * @return the number
+     * @throws IOException if the stream can't be read
+     */
+    private double parseNumber() throws IOException {
+        skipSpaces();
+        boolean negative = false;
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            read();
+            c = peek();
+        }
+        long mantissa = 0;
+        int exponent = 0, digits = 0;
+        for (; c >= '0' && c <= '9'; c = peek()) {
+            read();
+            ++digits;
+            if (mantissa < 100_000_000_000_000_000L)
+                mantissa = mantissa * 10 + (c - '0');
+            else
+                ++exponent;
+        }
+        if (c == '.') {
+            read();
+            for (c = peek(); c >= '0' && c <= '9'; c = peek()) {
+                read();
+                ++digits;
+                if (mantissa < 100_000_000_000_000_000L) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    --exponent;
+                }
+            }
+        }
+        if (digits == 0)
+            throw error("A number is expected");
+        if (c == 'e' || c == 'E') {
+            read();
+            exponent += parseInt();
+        }
+        double value = mantissa;
+        if (exponent != 0) {
+            // a mantissa of up to 53 bits with an exact power of 10 is rounded only once
+            if (exponent < 0 && exponent >= -22 && mantissa < (1L << 53))
+                value /= POWERS_OF_10[-exponent];
+            else if (exponent > 0 && exponent <= 22 && mantissa < (1L << 53))
+                value *= POWERS_OF_10[exponent];
+            else
+                value *= Math.pow(10, exponent);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * parse a decimal integer with an optional sign
+     *
+     * @return the integer
+     * @throws IOException if the stream can't be read
+     */
+    private int parseInt() throws IOException {
+        boolean negative = false;
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            read();
+            c = peek();
+        }
+        if (c < '0' || c > '9')
+            throw error("An integer is expected");
+        long value = 0;
+        for (; c >= '0' && c <= '9'; c = peek()) {
+            read();
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE)
+                throw error("The integer is too big");
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * skip the rest of the line, including the end of the line
+     *
+     * @throws IOException if the stream can't be read
+     */
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '\n') {
+                ++line;
+                return;
+            }
+        }
+    }
+
+    /**
+     * skip spaces and tabs
+     *
+     * @throws IOException if the stream can't be read
+     */
+    private void skipSpaces() throws IOException {
+        while (isSpace(peek()))
+            read();
+    }
+
+    /**
+     * check whether a character separates tokens in a line
+     *
+     * @param c the character
+     * @return true for a space, a tab and a carriage return
+     */
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * the next byte of the stream, without consuming it
+     *
+     * @return the byte, -1 at the end of the stream
+     * @throws IOException if the stream can't be read
+     */
+    private int peek() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position] & 0xff;
+    }
+
+    /**
+     * consume the next byte of the stream
+     *
+     * @return the byte, -1 at the end of the stream
+     * @throws IOException if the stream can't be read
+     */
+    private int read() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position++] & 0xff;
+    }
+
+    /**
+     * read the next block of the stream into the buffer
+     *
+     * @return false at the end of the stream
+     * @throws IOException if the stream can't be read
+     */
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0)
+            return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    /**
+     * create an exception for a wrong statement
+     *
+     * @param message what is wrong
+     * @return the exception with the line number
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " (OBJ line " + line + ")");
+    }
+}
@@ -0,0 +1,418 @@
+package scene;
+
+import geometries.Mesh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loader of binary PLY (Stanford polygon) models into a {@link Mesh}. <br/>
+ * The text header is parsed, then the binary body is mapped into memory and read straight
+ * into the arrays of the mesh, without a stream and without a copy of the file on the heap.
+ * Both little and big endian bodies are supported. The positions ("x", "y", "z") of the
+ * "vertex" element and the "vertex_indices" (or "vertex_index") list of the "face" element
+ * are read, faces of more than three vertices are split into a fan of triangles, and every
+ * other property and element is skipped.
+ */
+public final class PlyLoader {
+    /**
+     * the last line of the header
+     */
+    private static final String END_HEADER = "end_header";
+    /**
+     * the longest header that is accepted, in bytes
+     */
+    private static final int MAX_HEADER = 1 << 16;
+
+    /**
+     * A property of an element in the header
+     *
+     * @param name      the name of the property
+     * @param type      the type of the value, or of the items of a list
+     * @param countType the type of the length of a list, null for a single value
+     */
+    private record Property(String name, Type type, Type countType) {
+    }
+
+    /**
+     * An element of the header
+     *
+     * @param name       the name of the element
+     * @param count      the amount of items of the element in the body
+     * @param properties the properties of every item
+     */
+    private record Element(String name, int count, List<Property> properties) {
+    }
+
+    /**
+     * The types of the values in the body
+     */
+    private enum Type {
+        INT8(1), UINT8(1), INT16(2), UINT16(2), INT32(4), UINT32(4), FLOAT32(4), FLOAT64(8);
+
+        /**
+         * the size of a value in bytes
+         */
+        final int size;
+
+        Type(int size) {
+            this.size = size;
+        }
+
+        /**
+         * find a type by any of its names in the header
+         *
+         * @param name the name
+         * @return the type
+         * @throws IllegalArgumentException if the name is not a PLY type
+         */
+        static Type of(String name) {
+            return switch (name) {
+                case "char", "int8" -> INT8;
+                case "uchar", "uint8" -> UINT8;
+                case "short", "int16" -> INT16;
+                case "ushort", "uint16" -> UINT16;
+                case "int", "int32" -> INT32;
+                case "uint", "uint32" -> UINT32;
+                case "float", "float32" -> FLOAT32;
+                case "double", "float64" -> FLOAT64;
+                default -> throw new IllegalArgumentException("Unknown PLY type: " + name);
+            };
+        }
+
+        /**
+         * read a value as a double
+         *
+         * @param body     the body of the file
+         * @param position the position of the value
+         * @return the value
+         */
+        double read(ByteBuffer body, int position) {
+            return switch (this) {
+                case INT8 -> body.get(position);
+                case UINT8 -> body.get(position) & 0xff;
+                case INT16 -> body.getShort(position);
+                case UINT16 -> body.getShort(position) & 0xffff;
+                case INT32 -> body.getInt(position);
+                case UINT32 -> body.getInt(position) & 0xffffffffL;
+                case FLOAT32 -> body.getFloat(position);
+                case FLOAT64 -> body.getDouble(position);
+            };
+        }
+
+        /**
+         * read an integer value
+         *
+         * @param body     the body of the file
+         * @param position the position of the value
+         * @return the value
+         * @throws IllegalArgumentException if the value is not an int
+         */
+        int readInt(ByteBuffer body, int position) {
+            long value = switch (this) {
+                case INT8 -> body.get(position);
+                case UINT8 -> body.get(position) & 0xff;
+                case INT16 -> body.getShort(position);
+                case UINT16 -> body.getShort(position) & 0xffff;
+                case INT32 -> body.getInt(position);
+                case UINT32 -> body.getInt(position) & 0xffffffffL;
+                default -> throw new IllegalArgumentException("PLY lists and indices must be integers");
+            };
+            if (value > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("PLY integer is too big: " + value);
+            return (int) value;
+        }
+    }
+
+    /**
+     * no instances - only static methods
+     */
+    private PlyLoader() {
+    }
+
+    /**
+     * load a binary PLY file
+     *
+     * @param path the path of the file
+     * @return the mesh of the file
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is not a correct binary PLY file
+     */
+    public static Mesh load(Path path) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("PLY file is too big: " + path);
+            // the mapping stays valid after the channel is closed
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        List<Element> elements = new ArrayList<>();
+        ByteOrder order = parseHeader(file, elements);
+        ByteBuffer body = file.slice().order(order);
+
+        float[] vertices = null;
+        int[] indices = null;
+        int position = 0;
+        for (Element element : elements) {
+            if (element.name.equals("vertex")) {
+                vertices = readVertices(body, position, element);
+                position = body.position();
+            } else if (element.name.equals("face")) {
+                if (vertices == null)
+                    throw new IllegalArgumentException("PLY faces must follow the vertices");
+                indices = readFaces(body, position, element, vertices.length / 3);
+                position = body.position();
+            } else
+                position = skip(body, position, element);
+        }
+        if (vertices == null || indices == null)
+            throw new IllegalArgumentException("PLY file has no vertices or no faces: " + path);
+        return new Mesh(vertices, indices);
+    }
+
+    /**
+     * parse the text header, the position of the file is left at the beginning of the body
+     *
+     * @param file     the file
+     * @param elements the list to fill with the elements of the header
+     * @return the byte order of the body
+     * @throws IllegalArgumentException if the header is not a correct binary PLY header
+     */
+    private static ByteOrder parseHeader(ByteBuffer file, List<Element> elements) {
+        ByteOrder order = null;
+        List<Property> properties = null;
+        boolean first = true;
+        while (true) {
+            String line = readLine(file);
+            if (line == null)
+                throw new IllegalArgumentException("PLY header has no " + END_HEADER);
+            if (first) {
+                if (!line.equals("ply"))
+                    throw new IllegalArgumentException("Not a PLY file");
+                first = false;
+                continue;
+            }
+            String[] words = line.trim().split("\\s+");
+            switch (words[0]) {
+                case "format" -> order = switch (words.length > 1 ? words[1] : "") {
+                    case "binary_little_endian" -> ByteOrder.LITTLE_ENDIAN;
+                    case "binary_big_endian" -> ByteOrder.BIG_ENDIAN;
+                    default -> throw new IllegalArgumentException("Only binary PLY files are supported: " + line);
+                };
+                case "element" -> {
+                    if (words.length != 3)
+                        throw new IllegalArgumentException("Wrong PLY element: " + line);
+                    properties = new ArrayList<>();
+                    int count = Integer.parseInt(words[2]);
+                    if (count < 0)
+                        throw new IllegalArgumentException("Wrong PLY element count: " + line);
+                    elements.add(new Element(words[1], count, properties));
+                }
+                case "property" -> {
+                    if (properties == null)
+                        throw new IllegalArgumentException("PLY property out of an element: " + line);
+                    if (words.length == 5 && words[1].equals("list"))
+                        properties.add(new Property(words[4], Type.of(words[3]), Type.of(words[2])));
+                    else if (words.length == 3)
+                        properties.add(new Property(words[2], Type.of(words[1]), null));
+                    else
+                        throw new IllegalArgumentException("Wrong PLY property: " + line);
+                }
+                case END_HEADER -> {
+                    if (order == null)
+                        throw new IllegalArgumentException("PLY header has no format");
+                    return order;
+                }
+                default -> {
+                    // comments, obj_info and empty lines
+                }
+            }
+        }
+    }
+
+    /**
+     * read a line of the header
+     *
+     * @param file the file, its position is moved after the line
+     * @return the line without the end of line, null at the end of the file or of the allowed header
+     */
+    private static String readLine(ByteBuffer file) {
+        int start = file.position();
+        while (file.hasRemaining() && file.position() < MAX_HEADER) {
+            if (file.get() == '\n') {
+                int end = file.position() - 1;
+                if (end > start && file.get(end - 1) == '\r')
+                    --end;
+                byte[] bytes = new byte[end - start];
+                file.get(start, bytes);
+                return new String(bytes, StandardCharsets.US_ASCII);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * read the positions of the vertex element
+     *
+     * @param body     the body of the file, its position is left after the element
+     * @param position the position of the element in the body
+     * @param element  the vertex element
+     * @return 3 coordinates per vertex
+     */
+    private static float[] readVertices(ByteBuffer body, int position, Element element) {
+        int size = 0;
+        int[] offsets = {-1, -1, -1};
+        Type[] types = new Type[3];
+        for (Property property : element.properties) {
+            if (property.countType != null)
+                throw new IllegalArgumentException("PLY vertex can't have a list property: " + property.name);
+            int k = switch (property.name) {
+                case "x" -> 0;
+                case "y" -> 1;
+                case "z" -> 2;
+                default -> -1;
+            };
+            if (k >= 0) {
+                offsets[k] = size;
+                types[k] = property.type;
+            }
+            size += property.type.size;
+        }
+        if (offsets[0] < 0 || offsets[1] < 0 || offsets[2] < 0)
+            throw new IllegalArgumentException("PLY vertex must have x, y and z");
+        // the count of the header is checked against the file before the array is allocated
+        checkSize(body, position, (long) size * element.count);
+
+        float[] vertices = new float[element.count * 3];
+        for (int i = 0, j = 0; i < element.count; ++i, position += size)
+            for (int k = 0; k < 3; ++k)
+                vertices[j++] = (float) types[k].read(body, position + offsets[k]);
+        body.position(position);
+        return vertices;
+    }
+
+    /**
+     * read the face element and split the faces into triangles
+     *
+     * @param body        the body of the file, its position is left after the element
+     * @param position    the position of the element in the body
+     * @param element     the face element
+     * @param vertexCount the amount of vertices, to check the indices
+     * @return 3 vertex indices per triangle
+     */
+    private static int[] readFaces(ByteBuffer body, int position, Element element, int vertexCount) {
+        // the least size of a face - its single values, the counts of its lists and a triangle of
+        // indices, the count of the header is checked against the file before the array is allocated
+        long faceSize = 0;
+        for (Property property : element.properties)
+            faceSize += property.countType == null ? property.type.size : property.countType.size
+                    + (property.name.equals("vertex_indices") || property.name.equals("vertex_index")
+                    ? 3L * property.type.size : 0);
+        checkSize(body, position, faceSize * element.count);
+
+        int[] indices = new int[element.count * 3];
+        int size = 0;
+        boolean found = false;
+        for (int i = 0; i < element.count; ++i) {
+            for (Property property : element.properties) {
+                if (property.countType == null) {
+                    position += property.type.size;
+                    continue;
+                }
+                checkSize(body, position, property.countType.size);
+                int count = property.countType.readInt(body, position);
+                position += property.countType.size;
+                checkSize(body, position, (long) count * property.type.size);
+                if (!property.name.equals("vertex_indices") && !property.name.equals("vertex_index")) {
+                    position += count * property.type.size;
+                    continue;
+                }
+                found = true;
+                if (count < 3)
+                    throw new IllegalArgumentException("A PLY face must have at least 3 vertices (face " + i + ")");
+                int triangles = count - 2;
+                if (size + triangles * 3 > indices.length)
+                    indices = Arrays.copyOf(indices, Math.max(indices.length * 2, size + triangles * 3));
+                int first = index(body, position, property.type, vertexCount, i);
+                int previous = index(body, position + property.type.size, property.type, vertexCount, i);
+                for (int k = 2; k < count; ++k) {
+                    int next = index(body, position + k * property.type.size, property.type, vertexCount, i);
+                    indices[size++] = first;
+                    indices[size++] = previous;
+                    indices[size++] = next;
+                    previous = next;
+                }
+                position += count * property.type.size;
+            }
+        }
+        if (!found && element.count > 0)
+            throw new IllegalArgumentException("PLY face must have vertex_indices");
+        body.position(position);
+        return size == indices.length ? indices : Arrays.copyOf(indices, size);
+    }
+
+    /**
+     * read a vertex index of a face and check it
+     *
+     * @param body        the body of the file
+     * @param position    the position of the index
+     * @param type        the type of the index
+     * @param vertexCount the amount of vertices
+     * @param face        the number of the face, for the message
+     * @return the index
+     */
+    private static int index(ByteBuffer body, int position, Type type, int vertexCount, int face) {
+        int index = type.readInt(body, position);
+        if (index < 0 || index >= vertexCount)
+            throw new IllegalArgumentException("PLY vertex index " + index + " is out of range (face " + face + ")");
+        return index;
+    }
+
+    /**
+     * skip an element that is not read
+     *
+     * @param body     the body of the file
+     * @param position the position of the element in the body
+     * @param element  the element
+     * @return the position after the element
+     */
+    private static int skip(ByteBuffer body, int position, Element element) {
+        for (int i = 0; i < element.count; ++i)
+            for (Property property : element.properties) {
+                if (property.countType == null)
+                    position += property.type.size;
+                else {
+                    checkSize(body, position, property.countType.size);
+                    int count = property.countType.readInt(body, position);
+                    position += property.countType.size;
+                    checkSize(body, position, (long) count * property.type.size);
+                    position += count * property.type.size;
+                }
+                checkSize(body, position, 0);
+            }
+        return position;
+    }
+
+    /**
+     * check that the body has enough bytes
+     *
+     * @param body     the body of the file
+     * @param position the position to read from
+     * @param size     the amount of bytes to read
+     * @throws IllegalArgumentException if the body is too short
+     */
+    private static void checkSize(ByteBuffer body, int position, long size) {
+        if (size < 0 || position + size > body.limit())
+            throw new IllegalArgumentException("PLY file is truncated");
+    }
+}
@@ -1,12 +1,20 @@
 package scene;
 
 import geometries.Geometries;
+import geometries.Mesh;
+import geometries.MeshCache;
 import lighting.AmbientLight;
 import lighting.LightSource;
 import primitives.Color;
+import primitives.Material;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Graphic scene in our 3D model.
@@ -47,6 +55,7 @@ public class Scene {
      * Builder class for Scene.
      */
     public static class SceneBuilder {
+        private static final Logger logger = Logger.getLogger("SceneBuilder");
         private final String name;
         private Color background = Color.BLACK;
         private AmbientLight ambientLight = AmbientLight.NONE;
@@ -106,6 +115,69 @@ public class Scene {
             return this;
         }
 
+        /**
+         * Loads a model file and adds it to the geometries of the scene. <br/>
+         * OBJ (".obj"), binary PLY (".ply") and mesh cache (".mesh") files are supported.
+         * A parsed model is saved into a mesh cache beside it ("model.obj.mesh"), and the cache
+         * is mapped instead of parsing the model again while it is newer than the model.
+         *
+         * @param path     The path of the model file.
+         * @param material The material of the model.
+         * @return The SceneBuilder object.
+         * @throws IllegalArgumentException if the file is not a correct model of a supported format
+         * @throws IllegalStateException    if the file can't be read
+         */
+        public SceneBuilder addModel(Path path, Material material) {
+            Mesh mesh;
+            try {
+                mesh = loadModel(path);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "I/O error", e);
+                throw new IllegalStateException("I/O error - can't read the model " + path, e);
+            }
+            mesh.setMaterial(material);
+            geometries.add(mesh);
+            return this;
+        }
+
+        /**
+         * Loads a model file, through its mesh cache when the cache is up to date
+         *
+         * @param path The path of the model file.
+         * @return The mesh of the model.
+         * @throws IOException if the file can't be read
+         */
+        private static Mesh loadModel(Path path) throws IOException {
+            String fileName = path.getFileName().toString().toLowerCase();
+            if (fileName.endsWith(".mesh"))
+                return MeshCache.load(path);
+
+            Path cache = path.resolveSibling(path.getFileName() + ".mesh");
+            if (Files.exists(cache)
+                    && Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(path)) >= 0) {
+                try {
+                    return MeshCache.load(cache);
+                } catch (IllegalArgumentException e) {
+                    logger.log(Level.WARNING, "Mesh cache is not valid, parsing the model again: " + cache, e);
+                }
+            }
+
+            Mesh mesh;
+            if (fileName.endsWith(".obj"))
+                mesh = ObjLoader.load(path);
+            else if (fileName.endsWith(".ply"))
+                mesh = PlyLoader.load(path);
+            else
+                throw new IllegalArgumentException("Unknown model format: " + path);
+            try {
+                MeshCache.save(mesh, cache);
+            } catch (IOException | IllegalArgumentException e) {
+                // the cache only saves time, the model is loaded anyway
+                logger.log(Level.WARNING, "Can't write the mesh cache " + cache, e);
+            }
+            return mesh;
+        }
+
         /**
          * Builds the Scene object.
          *
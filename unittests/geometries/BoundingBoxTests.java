@@ -0,0 +1,72 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class for testing the BoundingBox class and the bounds of the geometries.
+ */
+class BoundingBoxTests {
+    private final BoundingBox box = new BoundingBox(new Point(-1, -1, -1), new Point(1, 1, 1));
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersects(Ray)}.
+     */
+    @Test
+    void testIntersects() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Ray crosses the box
+        assertTrue(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(1, 0.1, 0.1))), "Ray crosses the box");
+
+        //TC02: Ray misses the box
+        assertFalse(box.intersects(new Ray(new Point(-5, 3, 0), new Vector(1, 0, 0))), "Ray misses the box");
+
+        //TC03: Ray starts inside the box
+        assertTrue(box.intersects(new Ray(new Point(0, 0, 0), new Vector(1, 2, 3))), "Ray starts inside the box");
+
+        //TC04: Ray points away from the box
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(-1, 0, 0))), "Ray points away from the box");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: Ray parallel to a slab and outside of it
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 2), new Vector(1, 0, 0))), "Ray parallel outside");
+
+        //TC12: The box is farther than the maximal distance
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), 3), "Box is too far");
+        assertTrue(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), 4.5), "Box is close enough");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Sphere
+        BoundingBox sphereBox = new Sphere(new Point(1, 2, 3), 2).getBoundingBox();
+        assertEquals(-1, sphereBox.minX, 1e-10, "Wrong sphere box");
+        assertEquals(5, sphereBox.maxZ, 1e-10, "Wrong sphere box");
+
+        //TC02: Cylinder along the z axis
+        BoundingBox cylinderBox = new Cylinder(1, new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), 5).getBoundingBox();
+        assertEquals(-1, cylinderBox.minX, 1e-10, "Wrong cylinder box");
+        assertEquals(0, cylinderBox.minZ, 1e-10, "Wrong cylinder box");
+        assertEquals(5, cylinderBox.maxZ, 1e-10, "Wrong cylinder box");
+
+        //TC03: Geometries contains the boxes of all the geometries
+        Geometries geometries = new Geometries(new Sphere(new Point(0, 0, 0), 1),
+                new Triangle(new Point(5, 0, 0), new Point(0, 5, 0), new Point(0, 0, 5)));
+        assertEquals(5, geometries.getBoundingBox().maxY, 1e-10, "Wrong geometries box");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: Unbounded geometries
+        assertNull(new Plane(new Point(0, 0, 0), new Vector(0, 0, 1)).getBoundingBox(), "A plane is unbounded");
+        assertNull(new Tube(1, new Ray(new Point(0, 0, 0), new Vector(0, 0, 1))).getBoundingBox(), "A tube is unbounded");
+        geometries.add(new Plane(new Point(0, 0, 0), new Vector(0, 0, 1)));
+        assertNull(geometries.getBoundingBox(), "Geometries with a plane is unbounded");
+    }
+}
@@ -1,12 +1,21 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
+import primitives.RayPacket;
 import primitives.Vector;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GeometriesTests {
 
@@ -48,4 +57,200 @@ class GeometriesTests {
         ray = new Ray(new Point(6, 2, 2), new Vector(0, 3, 1));
         assertNull(new Geometries().findIntersections(ray));
     }
-}
\ No newline at end of file
+
+    /**
+     * tests for {@link geometries.Geometries#buildBVH()}.
+     */
+    @Test
+    void testBuildBVH() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01 the hierarchy finds the same intersections as the list
+        Random random = new Random(7);
+        Geometries flat = new Geometries();
+        Geometries tree = new Geometries();
+        for (int i = 0; i < 300; ++i) {
+            Point p = new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+            Intersectable item = i % 2 == 0 ? new Sphere(p, 1 + random.nextDouble() * 3)
+                    : new Triangle(p, p.add(new Vector(3, 0, 1)), p.add(new Vector(0, 4, 2)));
+            flat.add(item);
+            tree.add(item);
+        }
+        Plane plane = new Plane(new Point(0, 0, -60), new Vector(0, 0, 1));
+        flat.add(plane);
+        tree.add(plane);
+        tree.buildBVH();
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(new Point(0, 0, 100), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            List<Point> expected = flat.findIntersections(ray);
+            List<Point> actual = tree.findIntersections(ray);
+            if (expected == null)
+                assertNull(actual, "the hierarchy found intersections that the list didn't find");
+            else {
+                assertEquals(expected.size(), actual.size(), "the hierarchy found other intersections");
+                assertTrue(actual.containsAll(expected), "the hierarchy found other intersections");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC11 only unbounded geometries
+        Geometries planes = new Geometries(plane).buildBVH();
+        assertEquals(1, planes.findIntersections(new Ray(new Point(0, 0, 0), new Vector(0, 0, -1))).size());
+
+        //TC12 Empty body collection
+        assertNull(new Geometries().buildBVH().findIntersections(new Ray(new Point(6, 2, 2), new Vector(0, 3, 1))));
+    }
+
+    /**
+     * tests for {@link geometries.Geometries#findClosestGeoIntersection(Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01 the closest intersection is the closest one of the list, with and without the hierarchy
+        Random random = new Random(11);
+        Plane plane = new Plane(new Point(0, 0, -60), new Vector(0, 0, 1));
+        Geometries geometries = new Geometries(plane);
+        Geometries tree = new Geometries(plane);
+        for (int i = 0; i < 200; ++i) {
+            Point p = new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+            Intersectable item = i % 2 == 0 ? new Sphere(p, 1 + random.nextDouble() * 3)
+                    : new Triangle(p, p.add(new Vector(3, 0, 1)), p.add(new Vector(0, 4, 2)));
+            geometries.add(item);
+            tree.add(item);
+        }
+        for (Geometries tested : List.of(geometries, tree.buildBVH())) {
+            for (int i = 0; i < 300; ++i) {
+                Ray ray = new Ray(new Point(0, 0, 100), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+                Intersectable.GeoPoint expected = ray.findClosestGeoPoint(geometries.findGeoIntersections(ray));
+                assertEquals(expected, tested.findClosestGeoIntersection(ray), "wrong closest intersection");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC11 the only intersection is farther than the maximal distance
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+        Geometries planes = new Geometries(plane);
+        assertNull(planes.findClosestGeoIntersection(ray, 50), "the intersection is too far");
+        assertEquals(new Point(0, 0, -60), planes.findClosestGeoIntersection(ray, 70).point, "wrong closest intersection");
+
+        //TC12 Empty body collection
+        assertNull(new Geometries().findClosestGeoIntersection(ray));
+    }
+
+    /**
+     * tests for {@link geometries.Geometries#findClosestGeoIntersections(RayPacket)}.
+     */
+    @Test
+    void testFindClosestGeoIntersections() {
+        Random random = new Random(13);
+        Plane plane = new Plane(new Point(0, 0, -60), new Vector(0, 0, 1));
+        Geometries geometries = new Geometries(plane);
+        Geometries tree = new Geometries(plane);
+        for (int i = 0; i < 200; ++i) {
+            Point p = new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+            Intersectable item = i % 2 == 0 ? new Sphere(p, 1 + random.nextDouble() * 3)
+                    : new Triangle(p, p.add(new Vector(3, 0, 1)), p.add(new Vector(0, 4, 2)));
+            geometries.add(item);
+            tree.add(item);
+        }
+        tree.buildBVH();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01 a packet of coherent rays finds the closest intersection of every ray
+        //TC02 a packet of divergent rays (they fall back to single rays) finds them too
+        for (double spread : new double[]{0.01, 1}) {
+            for (int size : new int[]{4, 8, 16}) {
+                for (int k = 0; k < 50; ++k) {
+                    double x = random.nextDouble() - 0.5, y = random.nextDouble() - 0.5;
+                    List<Ray> rays = new ArrayList<>();
+                    for (int i = 0; i < size; ++i)
+                        rays.add(new Ray(new Point(0, 0, 100), new Vector(x + (random.nextDouble() - 0.5) * spread,
+                                y + (random.nextDouble() - 0.5) * spread, -1)));
+                    Intersectable.GeoPoint[] expected = new Intersectable.GeoPoint[size];
+                    for (int i = 0; i < size; ++i)
+                        expected[i] = geometries.findClosestGeoIntersection(rays.get(i));
+                    RayPacket packet = new RayPacket(rays);
+                    assertArrayEquals(expected, geometries.findClosestGeoIntersections(packet), "wrong closest intersections");
+                    assertArrayEquals(expected, tree.findClosestGeoIntersections(packet), "wrong closest intersections");
+                }
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC11 a packet of a single ray
+        Ray ray = new Ray(new Point(0, 0, 100), new Vector(0, 0, -1));
+        assertArrayEquals(new Intersectable.GeoPoint[]{geometries.findClosestGeoIntersection(ray)},
+                tree.findClosestGeoIntersections(new RayPacket(List.of(ray))), "wrong closest intersection");
+
+        //TC12 Empty body collection
+        assertArrayEquals(new Intersectable.GeoPoint[1],
+                new Geometries().findClosestGeoIntersections(new RayPacket(List.of(ray))), "there are no intersections");
+    }
+
+    /**
+     * tests for {@link geometries.Geometries#findTransmittance(Ray, double)}.
+     */
+    @Test
+    void testFindTransmittance() {
+        Geometries geometries = new Geometries(
+                new Sphere(new Point(0, 0, -10), 2).setMaterial(new Material().setkT(0.5)),
+                new Triangle(new Point(-5, -5, -20), new Point(5, -5, -20), new Point(0, 5, -20)));
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01 the ray crosses the transparent sphere twice
+        assertEquals(new Double3(0.25), geometries.findTransmittance(ray, 15), "wrong transmittance");
+
+        //TC02 the opaque triangle blocks the light, with and without the hierarchy
+        assertEquals(Double3.ZERO, geometries.findTransmittance(ray, 30), "the light should be blocked");
+        assertEquals(Double3.ZERO, geometries.buildBVH().findTransmittance(ray, 30), "the light should be blocked");
+
+        //TC03 the ray misses all the geometries
+        assertEquals(Double3.ONE, geometries.findTransmittance(new Ray(new Point(0, 0, 0), new Vector(0, 1, 0)), 30),
+                "nothing blocks the light");
+
+        // =============== Boundary Values Tests ==================
+        //TC11 the light is between the two sides of the sphere
+        assertEquals(new Double3(0.5), geometries.findTransmittance(ray, 10), "wrong transmittance");
+    }
+
+    /**
+     * tests for {@link geometries.Geometries#findTransmittance(Ray, double, double)}.
+     */
+    @Test
+    void testFindTransmittanceThreshold() {
+        // a row of spheres that leave 0.01 of the light each, and a last sphere that counts its queries
+        int[] visits = {0};
+        Sphere last = new Sphere(new Point(0, 0, -50), 2) {
+            @Override
+            protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+                ++visits[0];
+                return super.findTransmittanceHelper(ray, maxDistance, ktr, minKtr);
+            }
+        };
+        last.setMaterial(new Material().setkT(0.1));
+        Geometries geometries = new Geometries();
+        for (int i = 1; i <= 4; ++i)
+            geometries.add(new Sphere(new Point(0, 0, -10 * i), 2).setMaterial(new Material().setkT(0.1)));
+        geometries.add(last);
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01 the light is too weak after two spheres, the rest are not queried
+        assertEquals(Double3.ZERO, geometries.findTransmittance(ray, 100, 0.001), "the light should be blocked");
+        assertEquals(0, visits[0], "the query should stop once the light is too weak");
+
+        //TC02 the light that passes one sphere is above the threshold
+        assertEquals(new Double3(0.01), geometries.findTransmittance(ray, 15, 0.001), "wrong transmittance");
+
+        //TC03 the same with the hierarchy
+        assertEquals(Double3.ZERO, geometries.buildBVH().findTransmittance(ray, 100, 0.001),
+                "the light should be blocked");
+
+        // =============== Boundary Values Tests ==================
+        //TC11 no threshold - all the spheres are queried
+        visits[0] = 0;
+        assertEquals(1e-10, geometries.findTransmittance(ray, 100, 0).d1, 1e-20, "wrong transmittance");
+        assertEquals(1, visits[0], "the last sphere should be queried");
+    }
+}
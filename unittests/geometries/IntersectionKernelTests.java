@@ -0,0 +1,168 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for {@link IntersectionKernel} and {@link PrimitiveBatch}
+ */
+class IntersectionKernelTests {
+    /**
+     * the kernels that are tested - the loaded one and the scalar one
+     */
+    private final IntersectionKernel[] kernels = {IntersectionKernel.INSTANCE, new ScalarIntersectionKernel()};
+
+    /**
+     * random geometries around the origin - triangles, spheres and a plane that is not in the arrays
+     */
+    private static Intersectable[] randomItems(Random random, int count) {
+        Intersectable[] items = new Intersectable[count];
+        for (int i = 0; i < count; ++i) {
+            Point p = new Point(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10);
+            items[i] = switch (i % 5) {
+                case 0, 2 -> new Sphere(p, 0.5 + random.nextDouble() * 3);
+                case 4 -> new Plane(p, new Vector(random.nextDouble() - 0.5, 1, random.nextDouble() - 0.5));
+                default -> new Triangle(p, p.add(new Vector(random.nextDouble() * 5 + 1, 0, 1)),
+                        p.add(new Vector(0, random.nextDouble() * 5 + 1, 2)));
+            };
+        }
+        return items;
+    }
+
+    /**
+     * the closest intersection by the geometries one by one
+     */
+    private static Intersectable.GeoPoint closest(Intersectable[] items, Ray ray, double maxDistance) {
+        Intersectable.GeoPoint closest = null;
+        for (Intersectable item : items) {
+            Intersectable.GeoPoint point = item.findClosestGeoIntersection(ray, maxDistance);
+            if (point != null) {
+                closest = point;
+                maxDistance = point.point.distance(ray.getP0());
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * tests for {@link IntersectionKernel#intersectTriangles} and {@link IntersectionKernel#intersectSpheres}
+     */
+    @Test
+    void testIntersect() {
+        Random random = new Random(17);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01 the distances of every kernel are exactly the scalar distances of the primitives
+        for (int count : new int[]{2, 3, 5, 9, 17}) {
+            Intersectable[] items = randomItems(random, count);
+            for (IntersectionKernel kernel : kernels) {
+                PrimitiveBatch batch = new PrimitiveBatch(items, kernel.width());
+                double[] distances = new double[batch.length()];
+                for (int k = 0; k < 200; ++k) {
+                    double ox = random.nextDouble() * 40 - 20, oy = random.nextDouble() * 40 - 20, oz = 30;
+                    Vector dir = new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1).normalize();
+                    kernel.intersectTriangles(ox, oy, oz, dir.getX(), dir.getY(), dir.getZ(), batch, distances);
+                    kernel.intersectSpheres(ox, oy, oz, dir.getX(), dir.getY(), dir.getZ(), batch, distances);
+                    for (int i = 0; i < batch.triangleCount; ++i)
+                        assertEquals(Triangle.intersect(ox, oy, oz, dir.getX(), dir.getY(), dir.getZ(),
+                                        batch.ax[i], batch.ay[i], batch.az[i], batch.e1x[i], batch.e1y[i], batch.e1z[i],
+                                        batch.e2x[i], batch.e2y[i], batch.e2z[i], null),
+                                distances[i], "wrong distance of a triangle");
+                    for (int i = 0; i < batch.sphereCount; ++i)
+                        assertEquals(Sphere.intersect(ox, oy, oz, dir.getX(), dir.getY(), dir.getZ(),
+                                        batch.cx[i], batch.cy[i], batch.cz[i], batch.rr[i]),
+                                distances[batch.sphereOffset + i], "wrong distance of a sphere");
+                }
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        Intersectable[] items = {
+                new Sphere(new Point(0, 0, 0), 1),
+                new Triangle(new Point(-1, -1, -2), new Point(1, -1, -2), new Point(0, 1, -2)),
+                new Triangle(new Point(-1, 0, -1), new Point(1, 0, -1), new Point(0, 0, 1))};
+        for (IntersectionKernel kernel : kernels) {
+            PrimitiveBatch batch = new PrimitiveBatch(items, kernel.width());
+            double[] distances = new double[batch.length()];
+            //TC11 the ray starts at the center of the sphere (NaN) and is parallel to a triangle
+            kernel.intersectTriangles(0, 0, 0, 0, 0, -1, batch, distances);
+            kernel.intersectSpheres(0, 0, 0, 0, 0, -1, batch, distances);
+            assertEquals(2, distances[0], "wrong distance of a triangle");
+            assertEquals(Double.POSITIVE_INFINITY, distances[1], "the ray is parallel to the triangle");
+            assertTrue(Double.isNaN(distances[batch.sphereOffset]), "the ray starts at the center");
+            //TC12 the padding is never hit
+            for (int i = 2; i < batch.triangleCount; ++i)
+                assertEquals(Double.POSITIVE_INFINITY, distances[i], "the padding is hit");
+            for (int i = 1; i < batch.sphereCount; ++i)
+                assertEquals(Double.POSITIVE_INFINITY, distances[batch.sphereOffset + i], "the padding is hit");
+        }
+    }
+
+    /**
+     * tests for {@link PrimitiveBatch#findClosest}
+     */
+    @Test
+    void testFindClosest() {
+        Random random = new Random(19);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01 the closest intersection is the one of the geometries one by one
+        for (IntersectionKernel kernel : kernels) {
+            for (int count : new int[]{2, 4, 7, 12}) {
+                Intersectable[] items = randomItems(random, count);
+                PrimitiveBatch batch = new PrimitiveBatch(items, kernel.width());
+                double[] distances = new double[batch.length()];
+                for (int k = 0; k < 200; ++k) {
+                    Ray ray = new Ray(new Point(random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20, 30),
+                            new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+                    double maxDistance = k % 2 == 0 ? Double.POSITIVE_INFINITY : 30 + random.nextDouble() * 20;
+                    assertEquals(closest(items, ray, maxDistance),
+                            batch.findClosest(items, kernel, ray, maxDistance, distances), "wrong closest intersection");
+                }
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        Intersectable[] items = {
+                new Sphere(new Point(0, 0, 0), 1),
+                new Sphere(new Point(0, 0, -3), 1)};
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+        for (IntersectionKernel kernel : kernels) {
+            PrimitiveBatch batch = new PrimitiveBatch(items, kernel.width());
+            double[] distances = new double[batch.length()];
+            //TC11 the ray starts at the center of a sphere
+            assertEquals(new Point(0, 0, -1), batch.findClosest(items, kernel, ray, Double.POSITIVE_INFINITY, distances).point,
+                    "wrong closest intersection");
+            //TC12 the intersections are at the maximal distance
+            assertNull(batch.findClosest(items, kernel, ray, 1, distances), "the intersection is too far");
+        }
+    }
+
+    /**
+     * tests for {@link IntersectionKernel#INSTANCE}. The vector kernel is expected when it was
+     * compiled into the class path or the JVM runs with the module of the vector API, otherwise
+     * only the scalar kernel is tested and this test is skipped
+     */
+    @Test
+    void testInstance() {
+        boolean compiled = IntersectionKernel.class.getResource("VectorIntersectionKernel.class") != null;
+        boolean module = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assumeTrue(compiled || module, "The vector kernel is not built, only the scalar kernel is tested");
+        assumeTrue(Boolean.parseBoolean(System.getProperty("geometries.vector", "true")),
+                "The vector kernel is turned off, only the scalar kernel is tested");
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01 the vector kernel is loaded
+        assertTrue(compiled, "src-vector is not compiled into the class path");
+        assertTrue(module, "the JVM does not run with --add-modules jdk.incubator.vector");
+        assertEquals("geometries.VectorIntersectionKernel", IntersectionKernel.INSTANCE.getClass().getName(),
+                "the vector kernel is not loaded");
+    }
+}
@@ -0,0 +1,79 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class for testing the MeshCache class.
+ */
+class MeshCacheTests {
+    @TempDir
+    Path folder;
+
+    /**
+     * a unit cube, 8 vertices and 12 faces
+     */
+    private final Mesh cube = new Mesh(
+            new float[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0, 0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1, 1},
+            new int[]{0, 2, 1, 0, 3, 2, 4, 5, 6, 4, 6, 7, 0, 1, 5, 0, 5, 4,
+                    3, 7, 6, 3, 6, 2, 0, 4, 7, 0, 7, 3, 1, 2, 6, 1, 6, 5});
+
+    /**
+     * Test method for {@link geometries.MeshCache#load(Path)}.
+     */
+    @Test
+    void testSaveLoad() throws IOException {
+        Path file = folder.resolve("cube.mesh");
+        MeshCache.save(cube, file);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The loaded mesh is the same mesh
+        Mesh loaded = MeshCache.load(file);
+        assertEquals(8, loaded.getVertexCount(), "Wrong amount of vertices");
+        assertEquals(12, loaded.getFaceCount(), "Wrong amount of faces");
+        Ray[] rays = {
+                new Ray(new Point(0.3, 0.4, 5), new Vector(0, 0, -1)),
+                new Ray(new Point(-1, 0.5, 0.5), new Vector(1, 0.1, 0.2)),
+                new Ray(new Point(0.5, 0.5, 0.5), new Vector(1, 1, 1)),
+                new Ray(new Point(2, 2, 2), new Vector(1, 0, 0))};
+        for (Ray ray : rays)
+            assertEquals(cube.findIntersections(ray), loaded.findIntersections(ray), "Wrong intersections");
+
+        //TC02: Saving over a mesh that is mapped from the same file
+        MeshCache.save(loaded, file);
+        assertEquals(cube.findIntersections(rays[0]), MeshCache.load(file).findIntersections(rays[0]),
+                "Wrong intersections after saving again");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: A file that is not a cache file
+        Path other = folder.resolve("other.mesh");
+        Files.write(other, new byte[64]);
+        assertThrows(IllegalArgumentException.class, () -> MeshCache.load(other), "Loaded a file with a wrong magic");
+
+        //TC12: A corrupted cache file
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 5] ^= 1;
+        Path corrupted = folder.resolve("corrupted.mesh");
+        Files.write(corrupted, bytes);
+        assertThrows(IllegalArgumentException.class, () -> MeshCache.load(corrupted), "Loaded a corrupted file");
+
+        //TC13: A truncated cache file
+        Path truncated = folder.resolve("truncated.mesh");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IllegalArgumentException.class, () -> MeshCache.load(truncated), "Loaded a truncated file");
+
+        //TC14: A cache that can't be moved into place leaves no file aside
+        Path busy = folder.resolve("busy.mesh");
+        Files.createDirectories(busy.resolve("inside"));
+        assertThrows(IOException.class, () -> MeshCache.save(cube, busy), "Saved over a folder that is not empty");
+        assertFalse(Files.exists(folder.resolve("busy.mesh.tmp")), "The file that was written aside was left");
+    }
+}
@@ -0,0 +1,146 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class for testing the Mesh class.
+ */
+class MeshTests {
+    /**
+     * a unit cube, 8 vertices and 12 faces, the faces are counter clockwise when seen from outside
+     */
+    private final float[] vertices = {
+            0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0,
+            0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1, 1};
+    private final int[] indices = {
+            0, 2, 1, 0, 3, 2, // z = 0
+            4, 5, 6, 4, 6, 7, // z = 1
+            0, 1, 5, 0, 5, 4, // y = 0
+            3, 7, 6, 3, 6, 2, // y = 1
+            0, 4, 7, 0, 7, 3, // x = 0
+            1, 2, 6, 1, 6, 5}; // x = 1
+    private final Mesh cube = new Mesh(vertices, indices);
+
+    /**
+     * Test method for {@link geometries.Mesh#Mesh(float[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Correct mesh
+        assertEquals(8, cube.getVertexCount(), "Wrong amount of vertices");
+        assertEquals(12, cube.getFaceCount(), "Wrong amount of faces");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: A face with an index that is not of a vertex
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(vertices, new int[]{0, 1, 8}),
+                "Constructed a mesh with a wrong index");
+        //TC12: Faces that are not triangles
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(vertices, new int[]{0, 1, 2, 3}),
+                "Constructed a mesh with a face that is not a triangle");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#findGeoIntersections(Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Ray crosses the cube - enters and exits
+        Ray ray = new Ray(new Point(0.3, 0.4, 5), new Vector(0, 0, -1));
+        List<Point> points = cube.findIntersections(ray);
+        assertEquals(2, points.size(), "Wrong number of points");
+        assertTrue(points.containsAll(List.of(new Point(0.3, 0.4, 1), new Point(0.3, 0.4, 0))), "Wrong points");
+
+        //TC02: The closest intersection has the normal of the face that was hit
+        Intersectable.GeoPoint closest = cube.findClosestGeoIntersection(ray);
+        assertEquals(new Point(0.3, 0.4, 1), closest.point, "Wrong closest point");
+        assertEquals(new Vector(0, 0, 1), closest.geometry.getNormal(closest.point), "Wrong normal of the face");
+
+        //TC03: Ray misses the cube
+        assertNull(cube.findIntersections(new Ray(new Point(2, 2, 5), new Vector(0, 0, -1))), "Ray misses the cube");
+
+        //TC04: The same intersections as separate triangles
+        Geometries triangles = new Geometries();
+        for (int f = 0; f < 12; ++f)
+            triangles.add(new Triangle(vertex(indices[f * 3]), vertex(indices[f * 3 + 1]), vertex(indices[f * 3 + 2])));
+        Ray diagonal = new Ray(new Point(-1, -0.5, -0.8), new Vector(2, 1.3, 1.7));
+        List<Point> expected = triangles.findIntersections(diagonal);
+        List<Point> result = cube.findIntersections(diagonal);
+        assertEquals(expected.size(), result.size(), "Wrong number of points");
+        assertTrue(result.containsAll(expected), "Wrong points");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: The closest intersection is farther than the maximal distance
+        assertNull(cube.findClosestGeoIntersection(ray, 3.9), "The cube is too far");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#setFaceMaterials(Material[], int[])}.
+     */
+    @Test
+    void testSetFaceMaterials() {
+        Material glass = new Material().setkT(0.5);
+        Material wood = new Material().setkD(0.6);
+        int[] ids = new int[12];
+        ids[2] = 0;
+        ids[3] = 0;
+        for (int f = 4; f < 12; ++f)
+            ids[f] = f < 8 ? 1 : -1;
+        Mesh box = new Mesh(vertices, indices).setFaceMaterials(new Material[]{glass, wood}, ids);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The hit face has its own material
+        Ray ray = new Ray(new Point(0.3, 0.4, 5), new Vector(0, 0, -1));
+        assertSame(glass, box.findClosestGeoIntersection(ray).geometry.getMaterial(), "Wrong material of the face");
+
+        //TC02: The light passes through the transparent faces - the top face and the bottom one (glass)
+        assertEquals(new Double3(0.25), box.findTransmittance(ray, 10), "Wrong transmittance");
+
+        //TC03: An opaque face blocks the light
+        assertEquals(Double3.ZERO, box.findTransmittance(new Ray(new Point(0.3, 5, 0.4), new Vector(0, -1, 0)), 10),
+                "The light must be blocked");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: Faces without a material have the material of the mesh
+        assertSame(box.getMaterial(), box.getMaterial(10), "Wrong default material");
+        //TC12: A material index per face is required
+        assertThrows(IllegalArgumentException.class, () -> box.setFaceMaterials(new Material[]{glass}, new int[3]),
+                "Set materials to part of the faces");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A point on a face of the cube has the normal of the face
+        assertEquals(new Vector(1, 0, 0), cube.getNormal(new Point(1, 0.3, 0.6)), "Wrong normal of the face");
+        assertEquals(new Vector(0, -1, 0), cube.getNormal(new Point(0.7, 0, 0.2)), "Wrong normal of the face");
+
+        //TC02: A point on a face that is also on the plane of another face, far from it
+        Mesh mesh = new Mesh(new float[]{0.25f, 5, 0, 0.25f, 6, 0, 0.25f, 5, 1, 0, 0, 0, 1, 0, 0, 0, 1, 0},
+                new int[]{0, 1, 2, 3, 4, 5});
+        assertEquals(new Vector(0, 0, 1), mesh.getNormal(new Point(0.25, 0.2, 0)), "The normal of a far face");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: A point near an edge of the cube, outside of it, has the normal of the nearer face
+        assertEquals(new Vector(0, 0, 1), cube.getNormal(new Point(1.01, 0.5, 1.1)), "Wrong normal near an edge");
+
+        //TC12: A mesh without faces
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(vertices, new int[0]).getNormal(new Point(0, 0, 0)),
+                "A mesh without faces has no normal");
+    }
+
+    /**
+     * a vertex of the cube as a point
+     */
+    private Point vertex(int i) {
+        return new Point(vertices[i * 3], vertices[i * 3 + 1], vertices[i * 3 + 2]);
+    }
+}
@@ -9,6 +9,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * The SphereTests class is used to test the methods of the Sphere class.
@@ -31,6 +32,31 @@ class SphereTests {
         assertEquals(new Vector(1, 0, 0), s.getNormal(new Point(2, 0, 0)), "wrong normalized vector");
     }
 
+    /**
+     * Test method for the shading data of an intersection of a sphere,
+     * {@link Intersectable.GeoPoint#getNormal()} and {@link Intersectable.GeoPoint#getDistance(Ray)}.
+     */
+    @Test
+    void testGeoPointShadingData() {
+        Sphere sphere = new Sphere(new Point(0, 0, 0), 1d);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the hit knows its distance, its normal and its material and keeps them
+        Ray ray = new Ray(new Point(-3, 0, 0), new Vector(1, 0, 0));
+        Intersectable.GeoPoint hit = sphere.findClosestGeoIntersection(ray);
+        assertEquals(2, hit.getDistance(ray), 1e-10, "wrong distance of the hit");
+        assertEquals(new Vector(-1, 0, 0), hit.getNormal(), "wrong normal of the hit");
+        assertSame(hit.getNormal(), hit.getNormal(), "the normal is calculated again");
+        assertSame(sphere.getMaterial(), hit.getMaterial(), "wrong material of the hit");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: a hit that was made without its distance calculates it from the ray
+        assertEquals(2, new Intersectable.GeoPoint(sphere, new Point(-1, 0, 0)).getDistance(ray), 1e-10,
+                "wrong distance of the hit");
+        //TC12: the ray starts at the center, the distance is the radius
+        ray = new Ray(new Point(0, 0, 0), new Vector(0, 1, 0));
+        assertEquals(1, sphere.findClosestGeoIntersection(ray).getDistance(ray), 1e-10, "wrong distance of the hit");
+    }
+
     @Test
     public void testFindIntersections() {
         Sphere sphere = new Sphere(new Point(1, 0, 0), 1d);
@@ -70,4 +70,40 @@ class TriangleTests {
 
 
     }
+
+    /**
+     * Test method for {@link geometries.Triangle#findDistance(Ray, double[])}.
+     */
+    @Test
+    void testFindDistance() {
+        Triangle triangle = new Triangle(new Point(0, 0, -2), new Point(4, 0, -2), new Point(0, 4, -2));
+        double[] barycentric = new double[2];
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Ray crosses the triangle, the distance and the barycentric coordinates of the hit
+        assertEquals(4, triangle.findDistance(new Ray(new Point(1, 2, 2), new Vector(0, 0, -1)), barycentric),
+                1e-10, "Wrong distance to the triangle");
+        assertEquals(0.25, barycentric[0], 1e-10, "Wrong barycentric coordinate of the second vertex");
+        assertEquals(0.5, barycentric[1], 1e-10, "Wrong barycentric coordinate of the third vertex");
+
+        //TC02: Ray misses the triangle
+        assertEquals(Double.POSITIVE_INFINITY,
+                triangle.findDistance(new Ray(new Point(3, 3, 2), new Vector(0, 0, -1)), barycentric),
+                "Ray outside the triangle");
+
+        //TC03: Ray points away from the triangle
+        assertEquals(Double.POSITIVE_INFINITY,
+                triangle.findDistance(new Ray(new Point(1, 1, 2), new Vector(0, 0, 1)), null),
+                "Triangle behind the ray");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: Ray parallel to the triangle
+        assertEquals(Double.POSITIVE_INFINITY,
+                triangle.findDistance(new Ray(new Point(1, 1, 2), new Vector(1, 0, 0)), null),
+                "Ray parallel to the triangle");
+
+        //TC12: Ray crosses an edge of the triangle
+        assertEquals(Double.POSITIVE_INFINITY,
+                triangle.findDistance(new Ray(new Point(2, 0, 2), new Vector(0, 0, -1)), null),
+                "Ray on the edge of the triangle");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link LightHierarchy} and {@link LightSource#getInfluenceRadius(double)}
+ */
+class LightHierarchyTests {
+
+    /**
+     * Test method for {@link PointLight#getInfluenceRadius(double)}.
+     */
+    @Test
+    void testGetInfluenceRadius() {
+        Point position = new Point(0, 0, 0);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the intensity at the radius is the threshold - square attenuation
+        PointLight light = new PointLight(new Color(100, 400, 200), position, 1, 0.5, 0.01);
+        double radius = light.getInfluenceRadius(2);
+        assertEquals(2, light.getIntensity(new Point(radius, 0, 0)).getG(), 1e-9, "wrong radius of influence");
+
+        //TC02: the intensity at the radius is the threshold - linear attenuation
+        light = new PointLight(new Color(100, 400, 200), position, 1, 0.5, 0);
+        radius = light.getInfluenceRadius(2);
+        assertEquals(2, light.getIntensity(new Point(0, radius, 0)).getG(), 1e-9, "wrong radius of influence");
+
+        //TC03: a spot light has the radius of its attenuation
+        light = new PointLight(new Color(100, 400, 200), position, 1, 0.5, 0.01);
+        SpotLight spot = new SpotLight(new Color(100, 400, 200), position, 1, 0.5, 0.01, new Vector(1, 0, 0));
+        assertEquals(light.getInfluenceRadius(2), spot.getInfluenceRadius(2), "wrong radius of a spot light");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: a light without attenuation reaches everywhere
+        assertEquals(Double.POSITIVE_INFINITY, new PointLight(new Color(100, 400, 200), position).getInfluenceRadius(2),
+                "a light without attenuation must reach everywhere");
+
+        //TC12: a light that is weaker than the threshold at its position reaches nowhere
+        assertEquals(0, new PointLight(new Color(1, 1, 1), position, 1, 0.5, 0.01).getInfluenceRadius(2),
+                "a weak light must reach nowhere");
+
+        //TC13: a directional light reaches everywhere
+        assertEquals(Double.POSITIVE_INFINITY,
+                new DirectionalLight(new Color(100, 400, 200), new Vector(0, 0, -1)).getInfluenceRadius(2),
+                "a directional light must reach everywhere");
+    }
+
+    /**
+     * Test method for {@link LightHierarchy#findLights(Point)}.
+     */
+    @Test
+    void testFindLights() {
+        Random random = new Random(23);
+        List<LightSource> lights = new ArrayList<>();
+        for (int i = 0; i < 300; ++i) {
+            Point p = new Point(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100);
+            lights.add(switch (i % 10) {
+                case 0 -> new DirectionalLight(new Color(50, 50, 50), new Vector(0, 0, -1));
+                case 1, 2 -> new SpotLight(new Color(200, 100, 50), p, 1, 0.1, 0.01, new Vector(1, 1, -1));
+                default -> new PointLight(new Color(100, 200, 300), p, 1, random.nextDouble(), random.nextDouble() * 0.1);
+            });
+        }
+        double threshold = 1;
+        LightHierarchy hierarchy = new LightHierarchy(lights, threshold);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the lights of a point are the lights that reach it, in the order of the scene
+        for (int k = 0; k < 500; ++k) {
+            Point p = new Point(random.nextDouble() * 240 - 120, random.nextDouble() * 240 - 120, random.nextDouble() * 240 - 120);
+            List<LightSource> expected = new ArrayList<>();
+            for (LightSource light : lights)
+                if (light.getDistance(p) <= light.getInfluenceRadius(threshold))
+                    expected.add(light);
+            assertEquals(expected, hierarchy.findLights(p), "wrong lights of a point");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC11: a scene without lights
+        assertEquals(List.of(), new LightHierarchy(List.of(), threshold).findLights(new Point(1, 2, 3)),
+                "a scene without lights must have no lights");
+
+        //TC12: a threshold that is not positive
+        assertThrows(IllegalArgumentException.class, () -> new LightHierarchy(lights, 0),
+                "a threshold of 0 must throw");
+    }
+}
@@ -0,0 +1,44 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Vec3Tests class is responsible for testing the Vec3 class.
+ */
+class Vec3Tests {
+    Vector v123 = new Vector(1.0, 2.0, 3.0);
+    Vector v031 = new Vector(0.0, 3.0, 1.0);
+
+    /**
+     * The testOperations method tests that the in place operations give the same results as Vector.
+     */
+    @Test
+    public void testOperations() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: subtraction, scaled addition and normalization
+        Point p = new Point(4, 5, 6);
+        assertEquals(p.subtract(v123), new Vec3().setSubtract(p, v123).toVector(), "Wrong subtract");
+        assertEquals(v123.add(v031.scale(2)), new Vec3().set(v123).addScaled(v031, 2).toVector(), "Wrong scaled add");
+        assertEquals(v123.normalize(), new Vec3().set(v123).normalize().toVector(), "Wrong normalize");
+
+        //TC02: dot and cross products
+        assertEquals(v123.dotProduct(v031), new Vec3().set(v123).dotProduct(v031), 1e-10, "Wrong dot product");
+        assertEquals(v123.crossProduct(v031),
+                new Vec3().setCross(new Vec3().set(v123), new Vec3().set(v031)).toVector(), "Wrong cross product");
+
+        //TC03: the operations change the triad itself
+        Vec3 v = new Vec3(1, 2, 3);
+        assertSame(v, v.scale(2).add(new Vec3(1, 1, 1)), "The operations must return the same triad");
+        assertEquals(new Vector(3, 5, 7), v.toVector(), "Wrong in place result");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: cross product into one of the operands
+        Vec3 a = new Vec3().set(v123);
+        assertEquals(v123.crossProduct(v031), a.setCross(a, new Vec3().set(v031)).toVector(), "Wrong cross product in place");
+
+        //TC12: zero triad can't be normalized
+        assertThrows(IllegalArgumentException.class, () -> new Vec3().normalize(), "Normalizing zero must throw exception");
+    }
+}
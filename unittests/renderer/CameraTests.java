@@ -1,11 +1,15 @@
 package renderer;
 
+import geometries.Sphere;
+import geometries.Triangle;
 import org.junit.jupiter.api.Test;
+import primitives.Color;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
+import scene.Scene;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class CameraTest {
 
@@ -50,6 +54,137 @@ class CameraTest {
         assertEquals(new Ray(ZERO_POINT, new Vector(1, -3, -10)),
                 camera.setVPSize(8, 8).constructRayThroughPixel(4, 4, 1, 0), badRay);
 
+        // BV07: the view plane was moved after rays were constructed, 4X4 Inside (1,1)
+        assertEquals(new Ray(ZERO_POINT, new Vector(1, -1, -5)),
+                camera.setVPDistance(5).constructRayThroughPixel(4, 4, 1, 1), badRay);
+
+        // BV08: the resolution was changed after rays were constructed, 2X2 Corner (0,0)
+        assertEquals(new Ray(ZERO_POINT, new Vector(2, -2, -5)),
+                camera.constructRayThroughPixel(2, 2, 0, 0), badRay);
+
+    }
+
+
+    /**
+     * Test method for {@link Camera#setAdaptiveSampling(double, int, int)}.
+     */
+    @Test
+    void testAdaptiveSampling() {
+        Scene scene = new Scene.SceneBuilder("Adaptive").setBackground(new Color(20, 20, 20)).build();
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50).setEmission(new Color(200, 100, 0)));
+        Camera camera = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(200, 200)
+                .setRayTracer(new RayTracerBasic(scene)).setImageWriter(new ImageWriter("adaptive", 20, 20))
+                .setAdaptiveSampling(2, 8, 64);
+        camera.renderImage();
+        float[] errors = camera.getErrorMap();
+        int[] samples = camera.getSampleCounts();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A pixel of the background and a pixel inside the sphere stop after the least samples
+        assertEquals(8, samples[0], "A smooth pixel must stop early");
+        assertEquals(0, errors[0], "A smooth pixel has no error");
+        assertEquals(8, samples[10 * 20 + 10], "A smooth pixel must stop early");
+
+        //TC02: Pixels on the edge of the sphere get more samples, every pixel reaches the error or the budget
+        int edges = 0;
+        for (int p = 0; p < samples.length; ++p) {
+            assertTrue(errors[p] <= 2 || samples[p] == 64, "A pixel stopped before its error was reached");
+            if (samples[p] > 8)
+                ++edges;
+        }
+        assertTrue(edges > 0, "The edge pixels must get more samples");
+
+        //TC03: A jittered sampler with early termination - the upper half of the pixel is a triangle,
+        // the first rows of a jittered set are all in it, so the samples must not be cut from the set
+        Scene half = new Scene.SceneBuilder("Half").setBackground(Color.BLACK).build();
+        half.geometries.add(new Triangle(new Point(-1000, 0, -100), new Point(1000, 0, -100), new Point(0, 1000, -100))
+                .setEmission(new Color(0, 200, 0)));
+        Camera jittered = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(10, 10)
+                .setRayTracer(new RayTracerBasic(half)).setSampler(new JitteredSampler())
+                .setAdaptiveSampling(1, 8, 64);
+        ImageWriter pixel = new ImageWriter("jittered", 1, 1);
+        jittered.setImageWriter(pixel).renderImage();
+        assertEquals(100, pixel.getPixel(0, 0).getG(), 10, "The mean of the samples is biased");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: Wrong amounts of samples
+        assertThrows(IllegalArgumentException.class, () -> camera.setAdaptiveSampling(2, 1, 64),
+                "A single sample has no variance");
+        assertThrows(IllegalArgumentException.class, () -> camera.setAdaptiveSampling(2, 16, 8),
+                "The budget is less than the least samples");
+    }
+
+    /**
+     * Test method for {@link Camera#setadaptive(boolean)}.
+     */
+    @Test
+    void testAdaptiveSuperSampling() {
+        Scene scene = new Scene.SceneBuilder("Adaptive").setBackground(new Color(20, 20, 20)).build();
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50).setEmission(new Color(200, 100, 0)),
+                new Sphere(new Point(40, 30, -60), 15).setEmission(new Color(0, 100, 200)));
+        RayTracerBasic rayTracer = new RayTracerBasic(scene);
+        Camera camera = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(200, 200).setTileSize(32)
+                .setRayTracer(rayTracer).setadaptive(true).setantiAliasing(16);
+        ImageWriter image = new ImageWriter("adaptive", 20, 20);
+        camera.setImageWriter(image).renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The colors of the pixels are the colors of the recursion without the shared corners
+        for (int i = 0; i < 20; ++i)
+            for (int j = 0; j < 20; ++j) {
+                Point center = new Point((j - 9.5) * 10, -(i - 9.5) * 10, -100);
+                Color expected = rayTracer.AdaptiveSuperSamplingRec(center, 10, 10, 2.5, 2.5, ZERO_POINT,
+                        camera.getvRight(), camera.getvUp(), null);
+                // the image keeps the colors in floats
+                Color actual = image.getPixel(j, i);
+                assertEquals(expected.getR(), actual.getR(), 1e-4, "The shared corners changed the color of a pixel");
+                assertEquals(expected.getG(), actual.getG(), 1e-4, "The shared corners changed the color of a pixel");
+                assertEquals(expected.getB(), actual.getB(), 1e-4, "The shared corners changed the color of a pixel");
+            }
+
+        //TC02: A second rendering of the camera with another scene doesn't use the corners of the first one,
+        // the image is a single tile so the thread renders the same tile again
+        Scene blue = new Scene.SceneBuilder("Blue").setBackground(new Color(0, 0, 100)).build();
+        blue.geometries.add(new Sphere(new Point(0, 0, -100), 50).setEmission(new Color(0, 200, 50)));
+        ImageWriter second = new ImageWriter("adaptive", 20, 20);
+        camera.setRayTracer(new RayTracerBasic(blue)).setImageWriter(second).renderImage();
+        assertEquals(new Color(0, 0, 100).toString(), second.getPixel(0, 0).toString(),
+                "A pixel of the background kept the color of the first scene");
+        assertEquals(new Color(0, 200, 50).toString(), second.getPixel(10, 10).toString(),
+                "A pixel of the sphere kept the color of the first scene");
     }
 
-}
\ No newline at end of file
+    /**
+     * Test method for {@link Camera#setPacketSize(int)}.
+     */
+    @Test
+    void testPacketSize() {
+        Scene scene = new Scene.SceneBuilder("Packets").setBackground(new Color(20, 20, 20)).build();
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50).setEmission(new Color(200, 100, 0)),
+                new Sphere(new Point(40, 30, -60), 15).setEmission(new Color(0, 100, 200)));
+        Camera camera = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(200, 200).setTileSize(5)
+                .setRayTracer(new RayTracerBasic(scene));
+        // the image and the tiles are not multiples of the blocks
+        ImageWriter single = new ImageWriter("single", 23, 17);
+        camera.setImageWriter(single).renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The packets of 4, 8 and 16 rays render the same image as single rays
+        for (int size : new int[]{4, 8, 16}) {
+            ImageWriter packets = new ImageWriter("packets", 23, 17);
+            camera.setImageWriter(packets).setPacketSize(size).renderImage();
+            for (int y = 0; y < 17; ++y)
+                for (int x = 0; x < 23; ++x)
+                    assertEquals(single.getPixel(x, y).toString(), packets.getPixel(x, y).toString(),
+                            "A packet of " + size + " rays rendered another pixel");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC11: A wrong size
+        assertThrows(IllegalArgumentException.class, () -> camera.setPacketSize(2), "A packet of 2 rays is not supported");
+    }
+}
@@ -3,6 +3,8 @@ package renderer;
 import org.junit.jupiter.api.Test;
 import primitives.Color;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * This class contains a test case for the writeToImage() method of the ImageWriter class.
  */
@@ -30,4 +32,59 @@ class ImageWriterTests {
         }
         imageWriter.writeToImage();
     }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#addSample(int, int, Color, double)}.
+     */
+    @Test
+    void testAddSample() {
+        ImageWriter imageWriter = new ImageWriter("testSamples", 4, 2);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The pixel is the weighted average of its samples
+        imageWriter.addSample(1, 1, new Color(100, 0, 400), 1);
+        imageWriter.addSample(1, 1, new Color(200, 30, 100), 3);
+        assertTrue(new Color(175, 22.5, 175).isAlmostEquals(imageWriter.getPixel(1, 1)), "Wrong average");
+
+        //TC02: Writing a pixel replaces its samples
+        imageWriter.writePixel(1, 1, Color.RED);
+        assertTrue(Color.RED.isAlmostEquals(imageWriter.getPixel(1, 1)), "Wrong written pixel");
+
+        //TC03: The image is clamped to 255 by default and keeps bright details with Reinhard
+        imageWriter.writePixel(0, 0, new Color(510, 255, 0));
+        assertEquals(0xffff00, imageWriter.toImage().getRGB(0, 0) & 0xffffff, "Wrong clamped pixel");
+        imageWriter.setToneMapping(ImageWriter.ToneMapping.REINHARD);
+        assertEquals(0xaa7f00, imageWriter.toImage().getRGB(0, 0) & 0xffffff, "Wrong tone mapped pixel");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: A pixel that was not written is black
+        assertEquals(Color.BLACK, imageWriter.getPixel(3, 0), "An empty pixel must be black");
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#setOutOfCore(boolean)}.
+     */
+    @Test
+    void testOutOfCore() {
+        ImageWriter heap = new ImageWriter("testHeap", 300, 200);
+        ImageWriter mapped = new ImageWriter("testMapped", 300, 200).setOutOfCore(true);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A small image is on the heap by default
+        assertFalse(heap.isOutOfCore(), "A small image must be on the heap");
+        assertTrue(mapped.isOutOfCore(), "The image must be out of the heap");
+
+        //TC02: A mapped image keeps the same pixels
+        for (int y = 0; y < 200; ++y)
+            for (int x = 0; x < 300; ++x) {
+                Color color = new Color(x % 256, y, (x * y) % 300);
+                heap.writePixel(x, y, color);
+                mapped.writePixel(x, y, color);
+            }
+        heap.addSample(7, 9, Color.BLUE, 1);
+        mapped.addSample(7, 9, Color.BLUE, 1);
+        assertTrue(heap.getPixel(7, 9).isAlmostEquals(mapped.getPixel(7, 9)), "Wrong accumulated pixel");
+        java.awt.image.BufferedImage expected = heap.toImage(), actual = mapped.toImage();
+        for (int y = 0; y < 200; ++y)
+            for (int x = 0; x < 300; ++x)
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "Wrong pixel " + x + "," + y);
+    }
 }
@@ -0,0 +1,107 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Adler32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class for testing the PngWriter class.
+ */
+class PngWriterTests {
+    @TempDir
+    Path folder;
+
+    /**
+     * a color of a pixel of the tested images
+     */
+    private static int pixel(int x, int y) {
+        return (x * 7 + y) & 0xff | ((x ^ y) & 0xff) << 8 | (y * 3 / (x + 1)) << 16 & 0xff0000;
+    }
+
+    /**
+     * the rows of a tested image
+     */
+    private static PngWriter.RowSource source(int width) {
+        return (y, rgb, offset) -> {
+            for (int x = 0; x < width; ++x) {
+                int color = pixel(x, y);
+                rgb[offset++] = (byte) (color >> 16);
+                rgb[offset++] = (byte) (color >> 8);
+                rgb[offset++] = (byte) color;
+            }
+        };
+    }
+
+    /**
+     * Test method for {@link renderer.PngWriter#submitBand(int)}.
+     */
+    @Test
+    void testWrite() throws IOException {
+        int width = 2000, height = 500;
+        PngWriter.RowSource source = source(width);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // ============ Equivalence Partitions Tests ==============
+            //TC01: Several bands that are submitted out of order
+            Path path = folder.resolve("bands.png");
+            try (PngWriter png = new PngWriter(path, width, height, source, executor)) {
+                assertTrue(png.getBandCount() > 1, "The image must have several bands");
+                for (int band = png.getBandCount() - 1; band >= 0; --band)
+                    png.submitBand(band);
+            }
+            BufferedImage image = ImageIO.read(path.toFile());
+            assertEquals(width, image.getWidth(), "Wrong width");
+            assertEquals(height, image.getHeight(), "Wrong height");
+            for (int y = 0; y < height; ++y)
+                for (int x = 0; x < width; ++x)
+                    assertEquals(pixel(x, y), image.getRGB(x, y) & 0xffffff, "Wrong pixel " + x + "," + y);
+
+            // =============== Boundary Values Tests ==================
+            //TC11: An image of one pixel
+            Path small = folder.resolve("small.png");
+            try (PngWriter png = new PngWriter(small, 1, 1, source(1), executor)) {
+                assertEquals(1, png.getBandCount(), "A pixel is one band");
+                png.submitBand(0);
+            }
+            assertEquals(pixel(0, 0), ImageIO.read(small.toFile()).getRGB(0, 0) & 0xffffff, "Wrong pixel");
+
+            //TC12: A band that was not submitted
+            PngWriter missing = new PngWriter(folder.resolve("missing.png"), width, height, source, executor);
+            assertThrows(IllegalStateException.class, missing::close, "Closed with a missing band");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.PngWriter#combineAdler(int, int, long)}.
+     */
+    @Test
+    void testCombineAdler() {
+        byte[] data = new byte[100_000];
+        for (int i = 0; i < data.length; ++i)
+            data[i] = (byte) (i * 31 + i / 7);
+        Adler32 whole = new Adler32(), first = new Adler32(), second = new Adler32();
+        whole.update(data);
+        first.update(data, 0, 70_001);
+        second.update(data, 70_001, data.length - 70_001);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Two blocks
+        assertEquals((int) whole.getValue(),
+                PngWriter.combineAdler((int) first.getValue(), (int) second.getValue(), data.length - 70_001),
+                "Wrong combined checksum");
+        // =============== Boundary Values Tests ==================
+        //TC11: An empty first block
+        assertEquals((int) whole.getValue(), PngWriter.combineAdler(1, (int) whole.getValue(), data.length),
+                "Wrong checksum after an empty block");
+    }
+}
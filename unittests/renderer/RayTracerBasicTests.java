@@ -0,0 +1,216 @@
+package renderer;
+
+import geometries.Plane;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class for testing the glossy beams of the ray tracer.
+ */
+class RayTracerBasicTests {
+    private final Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+    private final Vector n = new Vector(0, 0, 1);
+
+    /**
+     * Test method for {@link renderer.RayTracerBasic#raysGrid(Ray, int, double, Vector, int)}.
+     */
+    @Test
+    void testRaysGrid() {
+        RayTracerBasic tracer = new RayTracerBasic(new Scene.SceneBuilder("grid").build());
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The full beam is the central ray and a grid of 5x5 rays
+        List<Ray> full = tracer.raysGrid(ray, 1, 1, n);
+        assertEquals(26, full.size(), "wrong amount of rays in the full beam");
+
+        //TC02: A smaller beam has a sparser grid over the same square
+        List<Ray> small = tracer.raysGrid(ray, 1, 1, n, 9);
+        assertEquals(5, small.size(), "wrong amount of rays in a small beam");
+        assertEquals(spread(full), spread(small), 1e-9, "a small beam must cover the square of the full beam");
+
+        //TC03: The rays of a small beam are spread around the central ray, none of them is the central ray
+        small = small.subList(1, small.size());
+        for (Ray r : small)
+            assertNotEquals(ray, r, "a small beam must not repeat the central ray");
+        assertEquals(4, small.stream().map(Ray::getDir).distinct().count(), "the rays of a small beam must differ");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: A beam of one ray is the central ray
+        assertEquals(List.of(ray), tracer.raysGrid(ray, 1, 1, n, 1), "a beam of one ray must be the central ray");
+
+        //TC12: A beam without gloss is the central ray
+        assertEquals(List.of(ray), tracer.raysGrid(ray, 1, 0, n, 36), "a beam without gloss must be the central ray");
+
+        //TC13: A beam that is too small for a grid around the central ray is the central ray
+        for (int count = 2; count < 5; ++count)
+            assertEquals(List.of(ray), tracer.raysGrid(ray, 1, 1, n, count),
+                    "a beam of " + count + " rays must be the central ray");
+    }
+
+    /**
+     * Test method for {@link renderer.RayTracerBasic#setRayBudget(int)}.
+     */
+    @Test
+    void testRayBudget() {
+        // two glossy mirrors that face each other, every ray is reflected to the deepest level
+        Ray slanted = new Ray(new Point(0, 0, 0), new Vector(0.3, 0.1, -1));
+        RayTracerBasic glossy = mirrors(0.5), sharp = mirrors(0);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A deep glossy scene is traced in a bounded time
+        assertTimeout(Duration.ofSeconds(10), () -> glossy.TraceRay(slanted), "the budget must bound the glossy rays");
+
+        //TC02: The budget is charged only for the rays that the beams really have
+        RayTracerBasic tracer = mirrors(0.5);
+        RayTracerBasic.PrimaryPath path = new RayTracerBasic.PrimaryPath(100, null);
+        assertEquals(26, tracer.glossyBeam(ray, 1, 1, n, new Double3(1), 10, path).size(), "wrong full beam");
+        assertEquals(75, path.getRemaining(), "a full beam must be charged for its 25 rays around the central ray");
+        assertEquals(1, tracer.glossyBeam(ray, -1, 1, n, new Double3(1), 10, path).size(), "wrong filtered beam");
+        assertEquals(75, path.getRemaining(), "the rays on the wrong side of the surface must not be charged");
+        int remaining = path.getRemaining();
+        for (double weight : new double[]{1, 0.6, 0.3, 0.1, 0.05})
+            for (int level = 10; level > 6; --level)
+                for (int direction : new int[]{1, -1}) {
+                    List<Ray> beam = tracer.glossyBeam(ray, direction, 1, n, new Double3(weight), level, path);
+                    remaining -= beam.size() - 1;
+                    assertEquals(remaining, path.getRemaining(), "the budget must be charged for the rays of the beam");
+                }
+
+        // =============== Boundary Values Tests ==================
+        //TC11: Without a budget every beam is its central ray - as a mirror without gloss
+        assertEquals(sharp.TraceRay(slanted).toString(), glossy.setRayBudget(0).TraceRay(slanted).toString(),
+                "without a budget the beams must be single rays");
+
+        //TC12: A negative budget
+        assertThrows(IllegalArgumentException.class, () -> glossy.setRayBudget(-1), "a negative budget must throw");
+    }
+
+    /**
+     * Test method for {@link renderer.RayTracerBasic#setRussianRoulette(double, long)}.
+     */
+    @Test
+    void testRussianRoulette() {
+        Ray slanted = new Ray(new Point(0, 0, 0), new Vector(0.3, 0.1, -1));
+        Color exact = mirrors(0, 0.5).TraceRay(slanted);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The roulette keeps the color on average
+        double r = 0, g = 0, b = 0;
+        int seeds = 4000;
+        for (int seed = 0; seed < seeds; ++seed) {
+            Color color = mirrors(0, 0.5).setRussianRoulette(0.5, seed).TraceRay(slanted);
+            r += color.getR();
+            g += color.getG();
+            b += color.getB();
+        }
+        assertEquals(exact.getR(), r / seeds, exact.getR() * 0.02, "the roulette must keep the red on average");
+        assertEquals(exact.getG(), g / seeds, exact.getG() * 0.02, "the roulette must keep the green on average");
+        assertEquals(exact.getB(), b / seeds, exact.getB() * 0.02, "the roulette must keep the blue on average");
+
+        //TC02: The same seed gives the same color
+        assertEquals(mirrors(0, 0.5).setRussianRoulette(0.5, 7).TraceRay(slanted).toString(),
+                mirrors(0, 0.5).setRussianRoulette(0.5, 7).TraceRay(slanted).toString(),
+                "the same seed must give the same color");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: A threshold of 0 turns the roulette off
+        assertEquals(exact.toString(), mirrors(0, 0.5).setRussianRoulette(0, 7).TraceRay(slanted).toString(),
+                "a threshold of 0 must not change the color");
+
+        //TC12: A threshold out of [0,1]
+        assertThrows(IllegalArgumentException.class, () -> mirrors(0, 0.5).setRussianRoulette(1.5, 0),
+                "a threshold above 1 must throw");
+        assertThrows(IllegalArgumentException.class, () -> mirrors(0, 0.5).setRussianRoulette(-0.1, 0),
+                "a negative threshold must throw");
+    }
+
+    /**
+     * Test method for {@link renderer.RayTracerBasic#setLightThreshold(double)}.
+     */
+    @Test
+    void testLightThreshold() {
+        Random random = new Random(29);
+        Scene scene = new Scene.SceneBuilder("lights").build();
+        scene.geometries.add(new Plane(new Point(0, 0, -100), new Vector(0, 0, 1))
+                .setMaterial(new Material().setkD(0.5).setkS(0.5).setnshininess(20)));
+        for (int i = 0; i < 200; ++i)
+            scene.lights.add(new PointLight(new Color(300, 200, 100),
+                    new Point(random.nextDouble() * 400 - 200, random.nextDouble() * 400 - 200, -90), 1, 0.05, 0.02));
+        RayTracerBasic all = new RayTracerBasic(scene);
+        all.prepare();
+        RayTracerBasic culled = new RayTracerBasic(scene).setLightThreshold(0.5);
+        culled.prepare();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the lights that are cut only make the color a little darker
+        for (int k = 0; k < 100; ++k) {
+            Ray ray = new Ray(new Point(0, 0, 0), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            Color exact = all.TraceRay(ray), color = culled.TraceRay(ray);
+            assertTrue(color.getR() <= exact.getR() && exact.getR() - color.getR() < 200 * 0.5,
+                    "the cut lights must make the color a little darker");
+            assertEquals(exact.getR(), color.getR(), exact.getR() * 0.05, "the cut lights must not be seen");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC11: a light that reaches everywhere is never cut
+        Scene directional = new Scene.SceneBuilder("directional").build();
+        directional.geometries.add(new Plane(new Point(0, 0, -100), new Vector(0, 0, 1))
+                .setMaterial(new Material().setkD(0.5)));
+        directional.lights.add(new DirectionalLight(new Color(300, 200, 100), new Vector(0, 0, -1)));
+        RayTracerBasic tracer = new RayTracerBasic(directional).setLightThreshold(0.5);
+        tracer.prepare();
+        assertEquals(new RayTracerBasic(directional).TraceRay(ray).toString(), tracer.TraceRay(ray).toString(),
+                "a directional light must not be cut");
+
+        //TC12: A negative threshold
+        assertThrows(IllegalArgumentException.class, () -> new RayTracerBasic(scene).setLightThreshold(-1),
+                "a negative threshold must throw");
+    }
+
+    /**
+     * a ray tracer of a scene of two parallel mirrors
+     *
+     * @param gloss the gloss of the mirrors
+     * @return the prepared ray tracer
+     */
+    private RayTracerBasic mirrors(double gloss) {
+        return mirrors(gloss, 0.9);
+    }
+
+    /**
+     * a ray tracer of a scene of two parallel mirrors
+     *
+     * @param gloss the gloss of the mirrors
+     * @param kR    the reflection of the mirrors
+     * @return the prepared ray tracer
+     */
+    private RayTracerBasic mirrors(double gloss, double kR) {
+        Scene scene = new Scene.SceneBuilder("mirrors").build();
+        scene.geometries.add(
+                new Plane(new Point(0, 0, -100), new Vector(0, 0, 1)).setEmission(new Color(20, 40, 60))
+                        .setMaterial(new Material().setkR(kR).setGlossy(gloss)),
+                new Plane(new Point(0, 0, 100), new Vector(0, 0, -1)).setEmission(new Color(60, 20, 40))
+                        .setMaterial(new Material().setkR(kR).setGlossy(gloss)));
+        RayTracerBasic tracer = new RayTracerBasic(scene);
+        tracer.prepare();
+        return tracer;
+    }
+
+    /**
+     * the widest angle between the rays of a beam and its central ray
+     */
+    private double spread(List<Ray> beam) {
+        double spread = 0;
+        for (Ray r : beam)
+            spread = Math.max(spread, Math.acos(Math.min(1, r.getDir().dotProduct(ray.getDir()))));
+        return spread;
+    }
+}
@@ -0,0 +1,83 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the RenderSession class
+ */
+class RenderSessionTests {
+
+    /**
+     * Test method for {@link RenderSession#render(ExecutorService, int, RenderSession.PixelRenderer)}.
+     */
+    @Test
+    void testRender() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // ============ Equivalence Partitions Tests ==============
+            //TC01: two sessions that run at the same time on a shared pool render each pixel once
+            int nX = 101, nY = 37;
+            AtomicIntegerArray first = new AtomicIntegerArray(nX * nY);
+            AtomicIntegerArray second = new AtomicIntegerArray(nX * nY);
+            RenderSession firstSession = new RenderSession(nX, nY, 16, 0);
+            RenderSession secondSession = new RenderSession(nX, nY, 7, 0);
+            Thread thread = new Thread(() -> firstSession.render(pool, 4, (col, row) -> first.incrementAndGet(row * nX + col)));
+            thread.start();
+            secondSession.render(pool, 4, (col, row) -> second.incrementAndGet(row * nX + col));
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (int i = 0; i < nX * nY; ++i) {
+                assertEquals(1, first.get(i), "pixel of the first session wasn't rendered once");
+                assertEquals(1, second.get(i), "pixel of the second session wasn't rendered once");
+            }
+            assertEquals(nX * nY, firstSession.getRenderedPixels(), "wrong progress of the first session");
+            assertEquals(nX * nY, secondSession.getRenderedPixels(), "wrong progress of the second session");
+
+            // =============== Boundary Values Tests ==================
+            //TC11: a failure of a worker is thrown to the rendering thread
+            assertThrows(IllegalStateException.class, () -> new RenderSession(10, 10, 4, 0).render(pool, 4, (col, row) -> {
+                throw new IllegalArgumentException("broken pixel");
+            }), "the failure of the rendering was lost");
+
+            //TC12: workers of an executor that is not a fork-join pool render each pixel once
+            ExecutorService fixed = Executors.newFixedThreadPool(3);
+            try {
+                AtomicIntegerArray third = new AtomicIntegerArray(nX * nY);
+                RenderSession thirdSession = new RenderSession(nX, nY, 5, 0);
+                thirdSession.render(fixed, 3, (col, row) -> third.incrementAndGet(row * nX + col));
+                for (int i = 0; i < nX * nY; ++i)
+                    assertEquals(1, third.get(i), "pixel of the fixed pool session wasn't rendered once");
+                assertEquals(nX * nY, thirdSession.getRenderedPixels(), "wrong progress of the fixed pool session");
+            } finally {
+                fixed.shutdown();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test method for {@link RenderSession#sharedPool(int)}.
+     */
+    @Test
+    void testSharedPool() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: repeated renderings with the same amount of threads reuse the pool
+        assertSame(RenderSession.sharedPool(2), RenderSession.sharedPool(2), "the pool wasn't shared");
+        assertEquals(2, RenderSession.sharedPool(2).getParallelism(), "wrong amount of threads");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: a non positive amount of threads gets a single thread pool
+        assertEquals(1, RenderSession.sharedPool(0).getParallelism(), "wrong amount of threads");
+    }
+}
@@ -0,0 +1,85 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class for testing the samplers.
+ */
+class SamplerTests {
+    private final Sampler[] samplers = {
+            new JitteredSampler(), new HaltonSampler(), new SobolSampler(), new BlueNoiseSampler()};
+
+    /**
+     * Test method for {@link renderer.Sampler#generate(int, long, double[])}.
+     */
+    @Test
+    void testGenerate() {
+        for (Sampler sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            // ============ Equivalence Partitions Tests ==============
+            //TC01: The points are in the unit square and the same seed gives the same points
+            double[] points = new double[2 * 16], again = new double[2 * 16], other = new double[2 * 16];
+            sampler.generate(16, 77, points);
+            sampler.generate(16, 77, again);
+            sampler.generate(16, 78, other);
+            for (double c : points)
+                assertTrue(c >= 0 && c < 1, name + ": a point out of the square");
+            assertArrayEquals(points, again, name + ": the same seed must give the same points");
+            assertFalse(Arrays.equals(points, other), name + ": another seed must give other points");
+
+            //TC02: The points are spread - every quarter of the square has a quarter of the points
+            int[] quarters = new int[4];
+            for (int k = 0; k < points.length; k += 2)
+                ++quarters[(points[k] < 0.5 ? 0 : 1) + (points[k + 1] < 0.5 ? 0 : 2)];
+            for (int quarter : quarters)
+                assertTrue(quarter >= 2 && quarter <= 6, name + ": the points are not spread");
+
+            //TC03: The beginning of a set of a progressive sampler is spread too
+            if (sampler.isProgressive()) {
+                double[] many = new double[2 * 64];
+                sampler.generate(64, 77, many);
+                quarters = new int[4];
+                for (int k = 0; k < 2 * 16; k += 2)
+                    ++quarters[(many[k] < 0.5 ? 0 : 1) + (many[k + 1] < 0.5 ? 0 : 2)];
+                for (int quarter : quarters)
+                    assertTrue(quarter >= 2 && quarter <= 6, name + ": the beginning of a set is not spread");
+            }
+
+            // =============== Boundary Values Tests ==================
+            //TC11: A single point
+            double[] single = new double[2];
+            sampler.generate(1, 5, single);
+            assertTrue(single[0] >= 0 && single[0] < 1 && single[1] >= 0 && single[1] < 1, name + ": wrong point");
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.JitteredSampler#generate(int, long, double[])}.
+     */
+    @Test
+    void testStratified() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The jittered points have exactly one point in every cell of the grid
+        double[] points = new double[2 * 64];
+        new JitteredSampler().generate(64, 3, points);
+        boolean[] cells = new boolean[64];
+        for (int k = 0; k < points.length; k += 2)
+            cells[(int) (points[k] * 8) + 8 * (int) (points[k + 1] * 8)] = true;
+        for (boolean cell : cells)
+            assertTrue(cell, "Jittered: a cell without a point");
+
+        //TC02: The first 2^m Sobol points have one point in every elementary rectangle
+        new SobolSampler().generate(64, 3, points);
+        for (int w = 1; w <= 64; w *= 2) {
+            cells = new boolean[64];
+            for (int k = 0; k < points.length; k += 2)
+                cells[(int) (points[k] * w) * (64 / w) + (int) (points[k + 1] * (64 / w))] = true;
+            for (boolean cell : cells)
+                assertTrue(cell, "Sobol: a rectangle of width 1/" + w + " without a point");
+        }
+    }
+}
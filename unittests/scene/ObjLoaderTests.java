@@ -0,0 +1,70 @@
+package scene;
+
+import geometries.Mesh;
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class for testing the ObjLoader class.
+ */
+class ObjLoaderTests {
+
+    /**
+     * Test method for {@link scene.ObjLoader#load(InputStream)}.
+     */
+    @Test
+    void testLoad() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A quad (split into two triangles) with texture and normal indices, comments and other statements
+        Mesh quad = load("""
+                # a unit square at z = -1
+                o square
+                v 0 0 -1
+                v 1.0 0 -1
+                v 1 1e0 -1.0
+                v 0 1 -1 1.0
+                vt 0 0
+                vn 0 0 1
+                f 1/1/1 2/1/1 3/1/1 4/1/1 # quad
+                """);
+        assertEquals(4, quad.getVertexCount(), "Wrong amount of vertices");
+        assertEquals(2, quad.getFaceCount(), "The quad must be split into two triangles");
+        assertEquals(List.of(new Point(0.25, 0.75, -1)),
+                quad.findIntersections(new Ray(new Point(0.25, 0.75, 1), new Vector(0, 0, -1))), "Wrong intersection");
+
+        //TC02: Negative (relative) indices, windows line ends and tabs
+        Mesh relative = load("v -1 -1 0\r\nv\t1 -1 0\r\nv 0 1.5 0\r\nf -3 -2 -1\r\n");
+        assertEquals(1, relative.getFaceCount(), "Wrong amount of faces");
+        assertEquals(List.of(new Point(0, 0, 0)),
+                relative.findIntersections(new Ray(new Point(0, 0, 2), new Vector(0, 0, -1))), "Wrong intersection");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: Empty model
+        assertEquals(0, load("").getFaceCount(), "An empty model has no faces");
+
+        //TC12: Wrong statements
+        assertThrows(IllegalArgumentException.class, () -> load("v 0 0\nv 1 1 1\n"), "A vertex with 2 coordinates");
+        assertThrows(IllegalArgumentException.class, () -> load("v 0 0 0\nv 1 0 0\nf 1 2\n"), "A face with 2 vertices");
+        assertThrows(IllegalArgumentException.class, () -> load("v 0 0 0\nv 1 0 0\nv 1 1 0\nf 0 1 2\n"),
+                "A face with index 0");
+        assertThrows(IllegalArgumentException.class, () -> load("v 0 0 0\nv 1 0 0\nv 1 1 0\nf 1 2 4\n"),
+                "A face with an index of a vertex that doesn't exist");
+    }
+
+    /**
+     * load a model from a text
+     */
+    private static Mesh load(String text) throws IOException {
+        return ObjLoader.load(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
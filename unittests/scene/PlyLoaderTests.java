@@ -0,0 +1,124 @@
+package scene;
+
+import geometries.Mesh;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A class for testing the PlyLoader class.
+ */
+class PlyLoaderTests {
+    @TempDir
+    Path folder;
+
+    /**
+     * Test method for {@link scene.PlyLoader#load(Path)}.
+     */
+    @Test
+    void testLoad() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A little endian quad (split into two triangles) with other properties and elements
+        Mesh quad = PlyLoader.load(write("quad.ply", ByteOrder.LITTLE_ENDIAN));
+        assertEquals(4, quad.getVertexCount(), "Wrong amount of vertices");
+        assertEquals(2, quad.getFaceCount(), "The quad must be split into two triangles");
+        assertEquals(List.of(new Point(0.25, 0.75, -1)),
+                quad.findIntersections(new Ray(new Point(0.25, 0.75, 1), new Vector(0, 0, -1))), "Wrong intersection");
+
+        //TC02: The same quad in big endian
+        Mesh big = PlyLoader.load(write("big.ply", ByteOrder.BIG_ENDIAN));
+        assertEquals(2, big.getFaceCount(), "Wrong amount of faces");
+        assertEquals(List.of(new Point(0.75, 0.25, -1)),
+                big.findIntersections(new Ray(new Point(0.75, 0.25, 1), new Vector(0, 0, -1))), "Wrong intersection");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: An ascii file
+        Path ascii = folder.resolve("ascii.ply");
+        Files.writeString(ascii, """
+                ply
+                format ascii 1.0
+                element vertex 0
+                property float x
+                end_header
+                """);
+        assertThrows(IllegalArgumentException.class, () -> PlyLoader.load(ascii), "Loaded an ascii file");
+
+        //TC12: A truncated file
+        Path file = write("truncated.ply", ByteOrder.LITTLE_ENDIAN);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(IllegalArgumentException.class, () -> PlyLoader.load(file), "Loaded a truncated file");
+
+        //TC13: A negative count of an element
+        Path negative = replace(write("negative.ply", ByteOrder.LITTLE_ENDIAN), "element vertex 4", "element vertex -1");
+        assertThrows(IllegalArgumentException.class, () -> PlyLoader.load(negative), "Loaded a negative count");
+
+        //TC14: A count of vertices far beyond the size of the file
+        Path vertices = replace(write("vertices.ply", ByteOrder.LITTLE_ENDIAN), "element vertex 4", "element vertex 2000000000");
+        assertThrows(IllegalArgumentException.class, () -> PlyLoader.load(vertices), "Loaded too many vertices");
+
+        //TC15: A count of faces far beyond the size of the file
+        Path faces = replace(write("faces.ply", ByteOrder.LITTLE_ENDIAN), "element face 1", "element face 2000000000");
+        assertThrows(IllegalArgumentException.class, () -> PlyLoader.load(faces), "Loaded too many faces");
+    }
+
+    /**
+     * replace a line of the header of a written file
+     */
+    private Path replace(Path path, String line, String replacement) throws IOException {
+        String content = new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+        Files.write(path, content.replace(line, replacement).getBytes(StandardCharsets.ISO_8859_1));
+        return path;
+    }
+
+    /**
+     * write a binary PLY file of a unit square at z = -1, the vertices have a color
+     * that is skipped and the file has an element of edges that is skipped too
+     */
+    private Path write(String name, ByteOrder order) throws IOException {
+        String header = """
+                ply
+                format %s 1.0
+                comment a unit square
+                element vertex 4
+                property double x
+                property uchar red
+                property float y
+                property float z
+                element face 1
+                property uchar flags
+                property list uchar int vertex_indices
+                element edge 1
+                property int vertex1
+                property int vertex2
+                end_header
+                """.formatted(order == ByteOrder.LITTLE_ENDIAN ? "binary_little_endian" : "binary_big_endian");
+        ByteBuffer body = ByteBuffer.allocate(4 * 17 + 18 + 8).order(order);
+        float[][] vertices = {{0, 0}, {1, 0}, {1, 1}, {0, 1}};
+        for (float[] vertex : vertices)
+            body.putDouble(vertex[0]).put((byte) 200).putFloat(vertex[1]).putFloat(-1);
+        body.put((byte) 0).put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+        body.putInt(0).putInt(1);
+
+        Path path = folder.resolve(name);
+        byte[] text = header.getBytes(StandardCharsets.US_ASCII);
+        byte[] bytes = new byte[text.length + body.capacity()];
+        System.arraycopy(text, 0, bytes, 0, text.length);
+        System.arraycopy(body.array(), 0, bytes, text.length, body.capacity());
+        Files.write(path, bytes);
+        return path;
+    }
+}